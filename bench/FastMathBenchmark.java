@@ -0,0 +1,134 @@
+package bench;
+
+import functions.Function;
+import functions.basic.Accuracy;
+import functions.basic.Cos;
+import functions.basic.Exp;
+import functions.basic.Log;
+import functions.basic.Sin;
+import functions.basic.Tan;
+
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+// Скорость и точность уровней Accuracy для Sin, Cos, Tan, Exp и Log.
+// Скорость - нс на значение при пакетном (getFunctionValues) и поштучном вычислении.
+// Точность - наибольшая погрешность относительно STRICT на случайных аргументах из области каждой функции;
+// отдельно считаются расхождения в особых значениях (NaN, бесконечности, ноль).
+// Запуск: java bench.FastMathBenchmark
+public class FastMathBenchmark {
+    private static final int BATCH = 4096;
+    private static final int ACCURACY_SAMPLES = 2_000_000;
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        System.out.println("Скорость, нс на значение (пакет / поштучно)");
+        speed("sin [-100; 100]", Sin::new, -100, 100);
+        speed("cos [-100; 100]", Cos::new, -100, 100);
+        speed("tan [-1.5; 1.5]", Tan::new, -1.5, 1.5);
+        speed("exp [-700; 700]", Exp::new, -700, 700);
+        speed("log10 [1e-3; 1e6]", accuracy -> new Log(10, accuracy), 1e-3, 1e6);
+
+        for (Accuracy accuracy : new Accuracy[]{Accuracy.HIGH, Accuracy.FAST}) {
+            System.out.println();
+            System.out.println("Погрешность " + accuracy + " относительно STRICT");
+            report("sin [-100; 100]", new Sin(), new Sin(accuracy), uniform(-100, 100), false);
+            report("sin [-1e6; 1e6]", new Sin(), new Sin(accuracy), uniform(-1e6, 1e6), false);
+            report("cos [-100; 100]", new Cos(), new Cos(accuracy), uniform(-100, 100), false);
+            report("cos [-1e6; 1e6]", new Cos(), new Cos(accuracy), uniform(-1e6, 1e6), false);
+            report("tan [-100; 100], |cos x| > 1e-3", new Tan(), new Tan(accuracy), awayFromPoles(100), true);
+            report("exp [-708; 708]", new Exp(), new Exp(accuracy), uniform(-708, 708), true);
+            report("ln [0.5; 2]", new Log(Math.E), new Log(Math.E, accuracy), uniform(0.5, 2), true);
+            report("ln [1e-300; 1e300]", new Log(Math.E), new Log(Math.E, accuracy), logUniform(300), true);
+            report("log3 [1e-300; 1e300]", new Log(3), new Log(3, accuracy), logUniform(300), true);
+        }
+    }
+
+    private interface Factory {
+        Function create(Accuracy accuracy);
+    }
+
+    private static void speed(String name, Factory factory, double left, double right) {
+        double[] xs = new double[BATCH];
+        double[] out = new double[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            xs[i] = left + (right - left) * (i + 0.5) / BATCH;
+        }
+
+        StringBuilder line = new StringBuilder(String.format("%-20s", name));
+        for (Accuracy accuracy : Accuracy.values()) {
+            Function f = factory.create(accuracy);
+            double batch = Double.MAX_VALUE;
+            double scalar = Double.MAX_VALUE;
+            for (int repeat = 0; repeat < 400; repeat++) {
+                long start = System.nanoTime();
+                f.getFunctionValues(xs, out, 0, BATCH);
+                long elapsed = System.nanoTime() - start;
+                sink += out[repeat % BATCH];
+                if (repeat >= 100) {
+                    batch = Math.min(batch, (double) elapsed / BATCH);
+                }
+            }
+            for (int repeat = 0; repeat < 200; repeat++) {
+                double sum = 0;
+                long start = System.nanoTime();
+                for (double x : xs) {
+                    sum += f.getFunctionValue(x);
+                }
+                long elapsed = System.nanoTime() - start;
+                sink += sum;
+                if (repeat >= 50) {
+                    scalar = Math.min(scalar, (double) elapsed / BATCH);
+                }
+            }
+            line.append(String.format("  %s %5.2f / %5.2f", accuracy, batch, scalar));
+        }
+        System.out.println(line);
+    }
+
+    private static void report(String name, Function strict, Function tier, ToDoubleFunction<Random> sample,
+                               boolean relative) {
+        Random random = new Random(16);
+        double maxError = 0;
+        double worstX = 0;
+        int specialMismatches = 0;
+        for (int i = 0; i < ACCURACY_SAMPLES; i++) {
+            double x = sample.applyAsDouble(random);
+            double expected = strict.getFunctionValue(x);
+            double actual = tier.getFunctionValue(x);
+            if (Double.isNaN(expected) || Double.isInfinite(expected) || expected == 0) {
+                if (Double.compare(expected, actual) != 0) {
+                    specialMismatches++;
+                }
+                continue;
+            }
+            double error = relative ? Math.abs(expected - actual) / Math.abs(expected) : Math.abs(expected - actual);
+            if (!(error <= maxError)) {
+                maxError = error;
+                worstX = x;
+            }
+        }
+        System.out.printf("%-34s %s %.2e (x = %.6g), расхождений в особых значениях: %d%n",
+                name, relative ? "отн." : "абс.", maxError, worstX, specialMismatches);
+    }
+
+    private static ToDoubleFunction<Random> uniform(double left, double right) {
+        return random -> left + (right - left) * random.nextDouble();
+    }
+
+    // Равномерно по показателю степени: 10^[-exponent; exponent]
+    private static ToDoubleFunction<Random> logUniform(double exponent) {
+        return random -> Math.pow(10, (2 * random.nextDouble() - 1) * exponent);
+    }
+
+    // Вблизи полюсов тангенс сколь угодно велик, и относительная погрешность там ничего не говорит о ядре
+    private static ToDoubleFunction<Random> awayFromPoles(double bound) {
+        return random -> {
+            double x;
+            do {
+                x = (2 * random.nextDouble() - 1) * bound;
+            } while (Math.abs(Math.cos(x)) < 1e-3);
+            return x;
+        };
+    }
+}
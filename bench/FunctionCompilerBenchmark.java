@@ -0,0 +1,110 @@
+package bench;
+
+import functions.Function;
+import functions.Functions;
+import functions.basic.Cos;
+import functions.basic.Sin;
+import functions.meta.Composition;
+import functions.meta.Mult;
+import functions.meta.Power;
+import functions.meta.Scale;
+import functions.meta.Shift;
+import functions.meta.Sum;
+
+// Стоимость вычисления дерева функций глубины 1-20 до и после Functions.compile.
+// Дерево - цепочка Shift, Sum, Scale, Mult, Power и Composition над Sin; узлы создаются напрямую,
+// без вспомогательных методов Functions, чтобы вложенные Shift и Scale не сворачивались в один узел.
+// Перед замерами деревья всех глубин прогреваются вместе: места вызова getFunctionValue в обёртках
+// становятся мегаморфными, как в программе, где встречаются разные деревья.
+// Запуск: java bench.FunctionCompilerBenchmark
+public class FunctionCompilerBenchmark {
+    private static final int MAX_DEPTH = 20;
+    private static final int POINTS = 4096;
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        double[] xs = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = -10 + 20.0 * (i + 0.5) / POINTS;
+        }
+
+        Function[] trees = new Function[MAX_DEPTH + 1];
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            trees[depth] = chain(depth);
+        }
+
+        // Прогрев: все глубины по очереди, чтобы JIT увидел все типы узлов в каждом месте вызова
+        for (int round = 0; round < 50; round++) {
+            for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+                sink += evaluate(trees[depth], xs);
+            }
+        }
+
+        System.out.println("Дерево функций, нс на значение; компиляция, мс");
+        System.out.printf("%8s %14s %14s %10s %14s%n", "глубина", "интерпретация", "компиляция", "ускорение", "время сборки");
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            long start = System.nanoTime();
+            Function compiled = Functions.compile(trees[depth]);
+            double compileMillis = (System.nanoTime() - start) / 1e6;
+            if (compiled == trees[depth]) {
+                System.out.println("Дерево глубины " + depth + " не скомпилировано (нет компилятора Java?)");
+                continue;
+            }
+
+            double interpreted = measure(trees[depth], xs);
+            double direct = measure(compiled, xs);
+            System.out.printf("%8d %14.1f %14.1f %10.2f %14.1f%n",
+                    depth, interpreted, direct, interpreted / direct, compileMillis);
+        }
+    }
+
+    // Узел уровня i выбирается по i % 6, так что каждая глубина добавляет к дереву один узел
+    private static Function chain(int depth) {
+        Function f = new Sin();
+        for (int i = 0; i < depth; i++) {
+            switch (i % 6) {
+                case 0:
+                    f = new Shift(f, 0.1, 0.2);
+                    break;
+                case 1:
+                    f = new Sum(f, new Sin());
+                    break;
+                case 2:
+                    f = new Scale(f, 1.1, 0.5);
+                    break;
+                case 3:
+                    f = new Mult(f, new Cos());
+                    break;
+                case 4:
+                    f = new Power(f, 2);
+                    break;
+                default:
+                    f = new Composition(new Sin(), f);
+                    break;
+            }
+        }
+        return f;
+    }
+
+    private static double evaluate(Function f, double[] xs) {
+        double sum = 0;
+        for (double x : xs) {
+            sum += f.getFunctionValue(x);
+        }
+        return sum;
+    }
+
+    // Лучшее из нескольких повторов после прогрева
+    private static double measure(Function f, double[] xs) {
+        double best = Double.MAX_VALUE;
+        for (int repeat = 0; repeat < 60; repeat++) {
+            long start = System.nanoTime();
+            sink += evaluate(f, xs);
+            long elapsed = System.nanoTime() - start;
+            if (repeat >= 20) {
+                best = Math.min(best, (double) elapsed / xs.length);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,168 @@
+package bench;
+
+import threads.ReadWriteSemaphore;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Пропускная способность чтения ReadWriteSemaphore при 1-64 читающих потоках, без писателя и с писателем,
+// который раз в миллисекунду захватывает запись. Для сравнения - прежняя реализация на одном мониторе.
+// Запуск: java bench.ReadWriteSemaphoreBenchmark [длительность замера в мс]
+public class ReadWriteSemaphoreBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        System.out.println("Процессоров: " + Runtime.getRuntime().availableProcessors()
+                + ", замер " + millis + " мс; чтений в секунду, млн (записей за замер)");
+        System.out.printf("%8s %12s %12s %22s %22s%n", "потоков", "монитор", "полосы", "монитор + писатель", "полосы + писатель");
+
+        // Прогрев
+        measure(new StripedLock(), 4, millis / 2, true);
+        measure(new MonitorLock(), 4, millis / 2, true);
+
+        for (int threads : THREAD_COUNTS) {
+            Result monitor = measure(new MonitorLock(), threads, millis, false);
+            Result striped = measure(new StripedLock(), threads, millis, false);
+            Result monitorWriter = measure(new MonitorLock(), threads, millis, true);
+            Result stripedWriter = measure(new StripedLock(), threads, millis, true);
+            System.out.printf("%8d %12.2f %12.2f %12.2f (%7d) %12.2f (%7d)%n", threads,
+                    monitor.readsPerSecond, striped.readsPerSecond,
+                    monitorWriter.readsPerSecond, monitorWriter.writes,
+                    stripedWriter.readsPerSecond, stripedWriter.writes);
+        }
+    }
+
+    private interface Lock {
+        void lockRead() throws InterruptedException;
+
+        void unlockRead();
+
+        void lockWrite() throws InterruptedException;
+
+        void unlockWrite();
+    }
+
+    private static final class StripedLock implements Lock {
+        private final ReadWriteSemaphore semaphore = new ReadWriteSemaphore();
+
+        public void lockRead() throws InterruptedException {
+            semaphore.lockRead();
+        }
+
+        public void unlockRead() {
+            semaphore.unlockRead();
+        }
+
+        public void lockWrite() throws InterruptedException {
+            semaphore.lockWrite();
+        }
+
+        public void unlockWrite() {
+            semaphore.unlockWrite();
+        }
+    }
+
+    // Прежняя реализация ReadWriteSemaphore: все операции на одном мониторе, освобождение будит всех
+    private static final class MonitorLock implements Lock {
+        private int readers = 0;
+        private int writers = 0;
+        private int writeRequests = 0;
+
+        public synchronized void lockRead() throws InterruptedException {
+            while (writers > 0 || writeRequests > 0) {
+                wait();
+            }
+            readers++;
+        }
+
+        public synchronized void unlockRead() {
+            readers--;
+            notifyAll();
+        }
+
+        public synchronized void lockWrite() throws InterruptedException {
+            writeRequests++;
+            while (readers > 0 || writers > 0) {
+                wait();
+            }
+            writeRequests--;
+            writers++;
+        }
+
+        public synchronized void unlockWrite() {
+            writers--;
+            notifyAll();
+        }
+    }
+
+    private static Result measure(Lock lock, int threads, long millis, boolean withWriter) throws InterruptedException {
+        // Потоки начинают считать одновременно: иначе уже запущенные работают, пока создаются остальные
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder reads = new LongAdder();
+        AtomicLong writes = new AtomicLong();
+
+        Thread[] readers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            readers[i] = new Thread(() -> {
+                long count = 0;
+                try {
+                    start.await();
+                    while (!stop.get()) {
+                        lock.lockRead();
+                        lock.unlockRead();
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reads.add(count);
+            });
+        }
+        Thread writer = new Thread(() -> {
+            try {
+                start.await();
+                while (!stop.get()) {
+                    lock.lockWrite();
+                    writes.incrementAndGet();
+                    lock.unlockWrite();
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        if (withWriter) {
+            writer.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (withWriter) {
+            writer.join();
+        }
+        return new Result(reads.sum() / seconds / 1e6, writes.get());
+    }
+
+    private static final class Result {
+        final double readsPerSecond;
+        final long writes;
+
+        Result(double readsPerSecond, long writes) {
+            this.readsPerSecond = readsPerSecond;
+            this.writes = writes;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import functions.Function;
+import functions.Functions;
+import functions.basic.Log;
+import threads.TaskScope;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Сравнение TaskScope на обычных и виртуальных потоках при веерном запуске интегрирований, каждое из
+// которых сначала ждёт ввода-вывода (имитируется Thread.sleep). Для каждого числа задач выводятся
+// время выполнения, наибольшее число живых потоков и прирост занятой кучи (стеки обычных потоков
+// в неё не входят).
+// Виртуальные потоки доступны в Java 21+ (в 19-20 - с --enable-preview); иначе оба режима обычные.
+// Запуск: java bench.ScopedPipelineBenchmark
+public class ScopedPipelineBenchmark {
+    private static final int[] TASK_COUNTS = {100, 1_000, 4_000};
+    private static final long IO_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Виртуальные потоки " + (TaskScope.isVirtualThreadSupported() ? "поддерживаются" : "не поддерживаются"));
+        System.out.printf("%8s %10s %10s %10s %12s%n", "задач", "потоки", "время, мс", "потоков", "куча, МБ");
+
+        // Прогрев: загрузка классов и JIT
+        run(100, false);
+        run(100, true);
+
+        for (int taskCount : TASK_COUNTS) {
+            for (boolean virtual : new boolean[]{false, true}) {
+                Result result = run(taskCount, virtual);
+                System.out.printf("%8d %10s %10.0f %10d %12.1f%n", taskCount,
+                        result.virtual ? "вирт." : "обычные", result.millis, result.peakThreads, result.memoryMegabytes);
+            }
+        }
+    }
+
+    private static Result run(int taskCount, boolean virtualThreads) throws InterruptedException {
+        Function function = new Log(Math.E);
+        AtomicInteger started = new AtomicInteger();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.nanoTime();
+        int peakThreads = 0;
+        long peakMemory = memoryBefore;
+        boolean virtual;
+        try (TaskScope scope = new TaskScope(virtualThreads)) {
+            virtual = scope.isVirtual();
+            for (int i = 0; i < taskCount; i++) {
+                double left = 1 + i % 100;
+                scope.fork(() -> {
+                    started.incrementAndGet();
+                    Thread.sleep(IO_MILLIS);
+                    return Functions.integrate(function, left, left + 10, 0.01);
+                });
+            }
+            // Все задачи запущены и ждут: в этот момент потоков и памяти больше всего
+            while (started.get() < taskCount) {
+                Thread.sleep(1);
+            }
+            peakThreads = Thread.activeCount();
+            peakMemory = runtime.totalMemory() - runtime.freeMemory();
+            scope.join();
+            scope.throwIfFailed();
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        return new Result(virtual, millis, peakThreads, Math.max(0, peakMemory - memoryBefore) / 1048576.0);
+    }
+
+    private static final class Result {
+        final boolean virtual;
+        final double millis;
+        final int peakThreads;
+        final double memoryMegabytes;
+
+        Result(boolean virtual, double millis, int peakThreads, double memoryMegabytes) {
+            this.virtual = virtual;
+            this.millis = millis;
+            this.peakThreads = peakThreads;
+            this.memoryMegabytes = memoryMegabytes;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package bench;
+
+import functions.ArrayTabulatedFunction;
+import functions.FunctionPoint;
+import functions.Functions;
+
+import java.util.Random;
+
+// Стоимость вычисления ArrayTabulatedFunction.getFunctionValue в зависимости от размера таблицы:
+// случайные аргументы (двоичный или интерполяционный поиск), монотонный проход (подсказка потока)
+// и интегрирование. Для сравнения - прежний поиск двумя линейными проходами по таблице.
+// Запуск: java bench.SegmentLookupBenchmark
+public class SegmentLookupBenchmark {
+    private static final int QUERIES = 200_000;
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    // Сюда складываются результаты, чтобы JIT не выбросил вычисления
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        System.out.println("Поиск отрезка в ArrayTabulatedFunction, нс на вызов");
+        System.out.printf("%10s %12s %12s %12s %14s %14s%n",
+                "точек", "случайные", "неравном.", "проход", "интеграл, мс", "линейный");
+
+        for (int n : SIZES) {
+            ArrayTabulatedFunction uniform = new ArrayTabulatedFunction(0, 1000, n);
+            ArrayTabulatedFunction irregular = irregularTable(n);
+            double[] queries = randomQueries(QUERIES);
+            double[] sweep = new double[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                sweep[i] = i * 1000.0 / QUERIES;
+            }
+
+            double random = measure(uniform, queries);
+            double randomIrregular = measure(irregular, queries);
+            double monotone = measure(uniform, sweep);
+
+            long start = System.nanoTime();
+            sink += Functions.integrate(uniform, 0, 1000, 1000.0 / QUERIES);
+            double integrateMillis = (System.nanoTime() - start) / 1e6;
+
+            // Линейный поиск на больших таблицах слишком медленный для всех запросов
+            int linearQueries = Math.max(100, QUERIES / (n / 1000));
+            double linear = measureLinear(uniform, queries, linearQueries);
+
+            System.out.printf("%10d %12.1f %12.1f %12.1f %14.2f %14.1f%n",
+                    n, random, randomIrregular, monotone, integrateMillis, linear);
+        }
+    }
+
+    // Таблица с неравномерной сеткой: интерполяционный поиск на ней не помогает, работает двоичный
+    private static ArrayTabulatedFunction irregularTable(int n) {
+        FunctionPoint[] points = new FunctionPoint[n];
+        for (int i = 0; i < n; i++) {
+            double t = (double) i / (n - 1);
+            points[i] = new FunctionPoint(1000 * t * t, t);
+        }
+        return new ArrayTabulatedFunction(points);
+    }
+
+    private static double[] randomQueries(int count) {
+        Random random = new Random(2);
+        double[] queries = new double[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = random.nextDouble() * 1000;
+        }
+        return queries;
+    }
+
+    // Лучшее из нескольких повторов после прогрева
+    private static double measure(ArrayTabulatedFunction f, double[] queries) {
+        double sum = 0;
+        double best = Double.MAX_VALUE;
+        for (int repeat = 0; repeat < 8; repeat++) {
+            long start = System.nanoTime();
+            for (double x : queries) {
+                sum += f.getFunctionValue(x);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (repeat >= 3) {
+                best = Math.min(best, (double) elapsed / queries.length);
+            }
+        }
+        sink += sum;
+        return best;
+    }
+
+    private static double measureLinear(ArrayTabulatedFunction f, double[] queries, int count) {
+        int n = f.getPointsCount();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = f.getPointX(i);
+            ys[i] = f.getPointY(i);
+        }
+
+        double sum = 0;
+        double best = Double.MAX_VALUE;
+        for (int repeat = 0; repeat < 4; repeat++) {
+            long start = System.nanoTime();
+            for (int k = 0; k < count; k++) {
+                sum += linearValue(xs, ys, queries[k]);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (repeat >= 1) {
+                best = Math.min(best, (double) elapsed / count);
+            }
+        }
+        sink += sum;
+        return best;
+    }
+
+    // Прежний алгоритм: проход в поисках точного совпадения, затем проход в поисках отрезка
+    private static double linearValue(double[] xs, double[] ys, double x) {
+        for (int i = 0; i < xs.length; i++) {
+            if (Math.abs(xs[i] - x) < 1e-10) {
+                return ys[i];
+            }
+        }
+        for (int i = 0; i < xs.length - 1; i++) {
+            if (x >= xs[i] && x <= xs[i + 1]) {
+                return ys[i] + (ys[i + 1] - ys[i]) * (x - xs[i]) / (xs[i + 1] - xs[i]);
+            }
+        }
+        return Double.NaN;
+    }
+}
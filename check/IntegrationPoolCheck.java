@@ -0,0 +1,108 @@
+package check;
+
+import functions.Function;
+import functions.Functions;
+import threads.IntegrationPool;
+import threads.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Проверки IntegrationPool на случаях, которые раньше приводили к ошибкам. При расхождении программа
+// завершается с кодом 1.
+// Запуск: java check.IntegrationPoolCheck
+public class IntegrationPoolCheck {
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        IntegrationPool pool = new IntegrationPool(2);
+        try {
+            lastPieceStartsBeforeRightBorder(pool);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        submitRacingShutdown();
+
+        System.out.println(failures == 0 ? "Все проверки пройдены" : "Не пройдено проверок: " + failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Деление длины на шаг даёт на один отрезок больше, чем есть на сетке: последняя часть начиналась
+    // в rightBorder, и интегрирование всей задачи завершалось IllegalArgumentException
+    private static void lastPieceStartsBeforeRightBorder(IntegrationPool pool) throws InterruptedException {
+        Task.TaskData taskData = new Task.TaskData(identity(), 90.81138228865419, 543.8729021742281, 0.006913170164269621);
+        double expected = Functions.integrate(taskData.function, taskData.leftBorder, taskData.rightBorder, taskData.step);
+        try {
+            double actual = pool.submit(taskData).get();
+            check("последняя часть задачи", Math.abs(actual - expected) <= 1e-9 * Math.abs(expected),
+                    "ожидалось " + expected + ", получено " + actual);
+        } catch (ExecutionException e) {
+            check("последняя часть задачи", false, "ошибка " + e.getCause());
+        }
+    }
+
+    // Задача, добавленная в очередь одновременно с остановкой пула, не должна остаться без результата:
+    // её либо выполняет рабочий поток, либо submit завершает её ошибкой
+    private static void submitRacingShutdown() throws InterruptedException {
+        Task.TaskData taskData = new Task.TaskData(identity(), 0, 1, 0.01);
+        int lost = 0;
+        for (int round = 0; round < 2000 && lost == 0; round++) {
+            IntegrationPool pool = new IntegrationPool(2);
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            Thread stopper = new Thread(pool::shutdown);
+            stopper.start();
+            try {
+                for (int i = 0; i < 100; i++) {
+                    futures.add(pool.submit(taskData));
+                }
+            } catch (IllegalStateException e) {
+                // Пул уже остановлен: submit отказал сразу
+            }
+            stopper.join();
+            for (CompletableFuture<Double> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // Отклонённая задача
+                } catch (TimeoutException e) {
+                    lost++;
+                }
+            }
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        check("submit одновременно с shutdown", lost == 0, "задач без результата: " + lost);
+    }
+
+    // Функция без первообразной: пул делит такие задачи на части
+    private static Function identity() {
+        return new Function() {
+            public double getLeftDomainBorder() {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            public double getRightDomainBorder() {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            public double getFunctionValue(double x) {
+                return x;
+            }
+        };
+    }
+
+    private static void check(String name, boolean passed, String details) {
+        if (passed) {
+            System.out.println("OK   " + name);
+        } else {
+            failures++;
+            System.out.println("FAIL " + name + ": " + details);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package check;
+
+import threads.TaskScope;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Проверки TaskScope на случаях, которые раньше приводили к ошибкам. При расхождении программа
+// завершается с кодом 1.
+// Запуск: java check.TaskScopeCheck
+public class TaskScopeCheck {
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        joinWaitsForCancelledTask(false);
+        if (TaskScope.isVirtualThreadSupported()) {
+            joinWaitsForCancelledTask(true);
+        }
+
+        System.out.println(failures == 0 ? "Все проверки пройдены" : "Не пройдено проверок: " + failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Отменённая задача, которая не сразу реагирует на прерывание, ещё выполняется после cancel(true).
+    // Раньше join возвращался сразу после отмены, не дожидаясь её кода
+    private static void joinWaitsForCancelledTask(boolean virtual) throws InterruptedException {
+        AtomicBoolean finished = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        try (TaskScope scope = new TaskScope(virtual)) {
+            scope.fork(() -> {
+                started.countDown();
+                long end = System.nanoTime() + 200_000_000L;
+                while (System.nanoTime() < end) {
+                    // Прерывание не проверяется
+                }
+                finished.set(true);
+            });
+            started.await();
+            scope.shutdown();
+            scope.join();
+            check("join после отмены" + (virtual ? " (виртуальные потоки)" : ""), finished.get(),
+                    "join вернулся, пока отменённая задача выполнялась");
+        }
+    }
+
+    private static void check(String name, boolean passed, String details) {
+        if (passed) {
+            System.out.println("OK   " + name);
+        } else {
+            failures++;
+            System.out.println("FAIL " + name + ": " + details);
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package functions;
 
+import java.io.EOFException;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.Arrays;
 import java.util.Iterator;
 
 public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable {
-    private FunctionPoint[] points;
+    // Значение, вычисленное по исходной версии класса: ранее записанные объекты остаются читаемыми
+    private static final long serialVersionUID = 3960218221758610292L;
+    // Координаты хранятся в параллельных массивах примитивов, а не в объектах FunctionPoint
+    private double[] xs;
+    private double[] ys;
     private int pointsCount;
+    // Необязательный кэш наклонов отрезков: slopes[i] = (y_i+1 - y_i) / (x_i+1 - x_i)
+    private double[] slopes;
     private static final double Epsilon = 1e-10;
+    // Необязательный индекс площадей отрезков для интегралов по интервалам за O(log n)
+    private transient SegmentAreaIndex integralIndex;
+    // Нелинейная интерполяция с предвычисленными коэффициентами; null - линейная
+    private transient InterpolationKernel interpolation;
+    // Номер последнего найденного отрезка для каждого потока: монотонный обход (например, integrate) почти не ищет
+    private transient ThreadLocal<int[]> segmentHint = ThreadLocal.withInitial(() -> new int[1]);
 
     public ArrayTabulatedFunction() {
     }
@@ -17,20 +31,32 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
     public void writeExternal(ObjectOutput out) throws IOException {
         out.writeInt(pointsCount);
         for (int i = 0; i < pointsCount; i++) {
-            out.writeDouble(points[i].getX());
-            out.writeDouble(points[i].getY());
+            out.writeDouble(xs[i]);
+            out.writeDouble(ys[i]);
         }
+        out.writeUTF(getInterpolationMethod().name());
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
         int count = in.readInt();
-        points = new FunctionPoint[count + 3];
+        xs = new double[count + 3];
+        ys = new double[count + 3];
         pointsCount = count;
+        slopes = null;
+        integralIndex = null;
+        interpolation = null;
         for (int i = 0; i < count; i++) {
-            double x = in.readDouble();
-            double y = in.readDouble();
-            points[i] = new FunctionPoint(x, y);
+            xs[i] = in.readDouble();
+            ys[i] = in.readDouble();
         }
+        // Потоки, записанные до появления способов интерполяции, заканчиваются на точках
+        InterpolationMethod method;
+        try {
+            method = InterpolationMethod.valueOf(in.readUTF());
+        } catch (EOFException e) {
+            method = InterpolationMethod.LINEAR;
+        }
+        setInterpolationMethod(method);
     }
 
     public ArrayTabulatedFunction(double leftX, double rightX, int pointsCount) {
@@ -41,13 +67,13 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             throw new IllegalArgumentException("Количество точек должно быть не менее 2");
         }
 
-        this.points = new FunctionPoint[pointsCount];
+        this.xs = new double[pointsCount];
+        this.ys = new double[pointsCount];
         this.pointsCount = pointsCount;
         double step = (rightX - leftX) / (pointsCount - 1);
 
         for (int i = 0; i < pointsCount; i++){
-            double x = leftX + i * step;
-            this.points[i] = new FunctionPoint(x, 0.0);
+            this.xs[i] = leftX + i * step;
         }
     }
 
@@ -64,12 +90,30 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         this.pointsCount = points.length;
-        this.points = new FunctionPoint[pointsCount];
+        this.xs = new double[pointsCount];
+        this.ys = new double[pointsCount];
 
-        // Копируем точки с обеспечением инкапсуляции
+        // Копируем координаты, ссылки на переданные точки не сохраняются
         for (int i = 0; i < pointsCount; i++) {
-            this.points[i] = new FunctionPoint(points[i]); // Используем конструктор копирования
+            this.xs[i] = points[i].getX();
+            this.ys[i] = points[i].getY();
+        }
+    }
+
+    // Таблица из готовых массивов координат (без копирования) для других классов пакета
+    ArrayTabulatedFunction(double[] xs, double[] ys) {
+        if (xs.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
         }
+        for (int i = 1; i < xs.length; i++) {
+            if (xs[i] <= xs[i-1] + Epsilon) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по возрастанию X");
+            }
+        }
+
+        this.pointsCount = xs.length;
+        this.xs = xs;
+        this.ys = ys;
     }
 
     public ArrayTabulatedFunction(double leftX, double rightX, double[] values){
@@ -81,48 +125,220 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         int pointsCount = values.length;
-        this.points = new FunctionPoint[pointsCount];
+        this.xs = new double[pointsCount];
+        this.ys = values.clone();
         this.pointsCount = pointsCount;
         double step = (rightX - leftX) / (pointsCount - 1);
 
         for (int i = 0; i < pointsCount; i++){
-            double x = leftX + i * step;
-            this.points[i] = new FunctionPoint(x, values[i]);
+            this.xs[i] = leftX + i * step;
+        }
+    }
+
+    // Включение кэша наклонов: интерполяция без деления ценой ещё одного массива
+    public void setSlopeCacheEnabled(boolean enabled) {
+        if (!enabled) {
+            slopes = null;
+        } else if (slopes == null) {
+            slopes = new double[xs.length];
+            updateSlopes(0, pointsCount - 2);
+        }
+    }
+
+    public boolean isSlopeCacheEnabled() {
+        return slopes != null;
+    }
+
+    // Включение индекса площадей: TabulatedFunctions.integrate отвечает за O(log n),
+    // а изменение одной точки обновляет индекс за O(log n)
+    public void setIntegralIndexEnabled(boolean enabled) {
+        if (!enabled) {
+            integralIndex = null;
+        } else if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(xs, ys, pointsCount);
+        }
+    }
+
+    public boolean isIntegralIndexEnabled() {
+        return integralIndex != null;
+    }
+
+    SegmentAreaIndex getIntegralIndex() {
+        return integralIndex;
+    }
+
+    // Выбор способа интерполяции между узлами; коэффициенты сплайнов вычисляются сразу
+    // и обновляются при изменении точек
+    public void setInterpolationMethod(InterpolationMethod method) {
+        if (method == null) {
+            throw new IllegalArgumentException("Способ интерполяции не может быть null");
+        }
+        if (method == InterpolationMethod.LINEAR) {
+            interpolation = null;
+        } else if (interpolation == null || interpolation.getMethod() != method) {
+            interpolation = new InterpolationKernel(xs, ys, pointsCount, method);
+        }
+    }
+
+    public InterpolationMethod getInterpolationMethod() {
+        return interpolation == null ? InterpolationMethod.LINEAR : interpolation.getMethod();
+    }
+
+    InterpolationKernel getInterpolationKernel() {
+        return interpolation;
+    }
+
+    // Обновление кэшей после изменения координат точки с номером index
+    private void pointChanged(int index) {
+        updateSlopes(index - 1, index);
+        if (integralIndex != null) {
+            integralIndex.pointChanged(index, xs[index], ys[index]);
+        }
+        if (interpolation != null) {
+            interpolation.pointChanged(index, xs[index], ys[index]);
+        }
+    }
+
+    // Пересчёт наклонов отрезков с номерами from..to (границы обрезаются по допустимым)
+    private void updateSlopes(int from, int to) {
+        if (slopes == null) {
+            return;
+        }
+        from = Math.max(from, 0);
+        to = Math.min(to, pointsCount - 2);
+        for (int i = from; i <= to; i++) {
+            slopes[i] = (ys[i + 1] - ys[i]) / (xs[i + 1] - xs[i]);
         }
     }
 
     public double getLeftDomainBorder() {
-        return points[0].getX();
+        return xs[0];
     }
 
     public double getRightDomainBorder(){
-        return points[pointsCount - 1].getX();
+        return xs[pointsCount - 1];
     }
 
     public double getFunctionValue(double x){
         if (x < getLeftDomainBorder() - Epsilon || x > getRightDomainBorder() + Epsilon) {
             return Double.NaN;
         }
+        if (interpolation != null) {
+            return interpolation.value(x);
+        }
 
-        for (int i = 0; i < pointsCount; i++){
-            if (Math.abs(points[i].getX() - x) < Epsilon) {
-                return points[i].getY(); // Возвращаем соответствующий y
+        return valueInSegment(findSegment(x), x);
+    }
+
+    // Пакетное вычисление: для возрастающих аргументов отрезок ищется слиянием за O(n + m)
+    public void getFunctionValues(double[] args, double[] out, int from, int to) {
+        if (interpolation != null) {
+            interpolation.values(args, out, from, to);
+            return;
+        }
+
+        double left = getLeftDomainBorder() - Epsilon;
+        double right = getRightDomainBorder() + Epsilon;
+        int last = pointsCount - 2;
+        int segment = 0;
+        double previous = Double.NaN;
+
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (!(x >= left && x <= right)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x >= previous) {
+                // Несколько шагов вперёд по массиву, при большом разрыве - обычный поиск
+                int steps = 0;
+                while (segment < last && xs[segment + 1] <= x && steps < 8) {
+                    segment++;
+                    steps++;
+                }
+                if (!isInSegment(segment, x)) {
+                    segment = findSegment(x);
+                }
+            } else {
+                segment = findSegment(x);
             }
+
+            previous = x;
+            out[k] = valueInSegment(segment, x);
+        }
+    }
+
+    // Значение в точке x по отрезку [x_i; x_i+1] при линейной интерполяции: совпадение с узлом или прямая
+    private double valueInSegment(int i, double x) {
+        double x1 = xs[i];
+        double x2 = xs[i + 1];
+
+        if (Math.abs(x1 - x) < Epsilon) {
+            return ys[i]; // Возвращаем соответствующий y
         }
+        if (Math.abs(x2 - x) < Epsilon) {
+            return ys[i + 1];
+        }
+
+        if (slopes != null) {
+            return ys[i] + slopes[i] * (x - x1);
+        }
+
+        double y1 = ys[i];
+        double y2 = ys[i + 1];
 
-        for (int i = 0; i < pointsCount - 1; i++){
-            double x1 = points[i].getX();
-            double x2 = points[i + 1].getX();
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    // Индекс отрезка [x_i; x_i+1], содержащего x (крайние отрезки принимают и точки за границей)
+    private int findSegment(double x) {
+        int last = pointsCount - 2;
+        int[] hint = segmentHint.get();
+
+        // Сначала проверяем отрезок из подсказки и следующий за ним
+        int i = hint[0];
+        if (i <= last && isInSegment(i, x)) {
+            return i;
+        }
+        if (i + 1 <= last && isInSegment(i + 1, x)) {
+            hint[0] = i + 1;
+            return i + 1;
+        }
 
-            if (x >= x1 - Epsilon && x <= x2 + Epsilon){
-                double y1 = points[i].getY();
-                double y2 = points[i + 1].getY();
+        // Интерполяционная догадка: на равномерной сетке сразу попадает в нужный отрезок
+        double left = xs[0];
+        double right = xs[pointsCount - 1];
+        int guess = (int) ((x - left) / (right - left) * (last + 1));
+        guess = Math.max(0, Math.min(last, guess));
+        if (isInSegment(guess, x)) {
+            hint[0] = guess;
+            return guess;
+        }
 
-                return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+        // Двоичный поиск последнего узла с x_i <= x по оставшейся части массива
+        int lo = 0;
+        int hi = last;
+        if (x < xs[guess]) {
+            hi = guess - 1;
+        } else {
+            lo = guess + 1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
             }
         }
 
-        return Double.NaN;
+        hint[0] = lo;
+        return lo;
+    }
+
+    private boolean isInSegment(int i, double x) {
+        return (i == 0 || xs[i] <= x) && (i == pointsCount - 2 || x < xs[i + 1]);
     }
 
     public int getPointsCount(){
@@ -133,7 +349,7 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
         }
-        return new FunctionPoint(points[index]);
+        return new FunctionPoint(xs[index], ys[index]);
     }
 
     public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
@@ -142,21 +358,23 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         }
 
         double newX = point.getX();
-        if (index > 0 && newX <= points[index - 1].getX() + Epsilon) {
+        if (index > 0 && newX <= xs[index - 1] + Epsilon) {
             throw new InappropriateFunctionPointException("X точки должен быть больше предыдущей точки");
         }
-        if (index < pointsCount - 1 && newX >= points[index + 1].getX() - Epsilon) {
+        if (index < pointsCount - 1 && newX >= xs[index + 1] - Epsilon) {
             throw new InappropriateFunctionPointException("X точки должен быть меньше следующей точки");
         }
 
-        points[index] = new FunctionPoint(point);
+        xs[index] = newX;
+        ys[index] = point.getY();
+        pointChanged(index);
     }
 
     public double getPointX(int index){
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
         }
-        return points[index].getX();
+        return xs[index];
     }
 
     public void setPointX(int index, double x) throws InappropriateFunctionPointException {
@@ -164,28 +382,30 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
         }
 
-        if (index > 0 && x <= points[index - 1].getX() + Epsilon) {
+        if (index > 0 && x <= xs[index - 1] + Epsilon) {
             throw new InappropriateFunctionPointException("X точки должен быть больше предыдущей точки");
         }
-        if (index < pointsCount - 1 && x >= points[index + 1].getX() - Epsilon) {
+        if (index < pointsCount - 1 && x >= xs[index + 1] - Epsilon) {
             throw new InappropriateFunctionPointException("X точки должен быть меньше следующей точки");
         }
 
-        points[index].setX(x);
+        xs[index] = x;
+        pointChanged(index);
     }
 
     public double getPointY(int index){
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
         }
-        return points[index].getY();
+        return ys[index];
     }
 
     public void setPointY(int index, double y){
         if (index < 0 || index >= pointsCount) {
             throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
         }
-        points[index].setY(y);
+        ys[index] = y;
+        pointChanged(index);
     }
 
     public void deletePoint(int index){
@@ -196,33 +416,59 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             throw new IllegalStateException("Нельзя удалить точку: должно остаться минимум 2 точки");
         }
 
-        System.arraycopy(points, index + 1, points, index, pointsCount - index - 1);
+        System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+        System.arraycopy(ys, index + 1, ys, index, pointsCount - index - 1);
+        if (slopes != null && index < pointsCount - 2) {
+            System.arraycopy(slopes, index + 1, slopes, index, pointsCount - index - 2);
+        }
         pointsCount--;
+        updateSlopes(index - 1, index - 1);
+        if (integralIndex != null) {
+            integralIndex.pointDeleted(index);
+        }
+        if (interpolation != null) {
+            interpolation.pointDeleted(index);
+        }
     }
 
     public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
         double newX = point.getX();
         for (int i = 0; i < pointsCount; i++) {
-            if (Math.abs(points[i].getX() - newX) < Epsilon) {
+            if (Math.abs(xs[i] - newX) < Epsilon) {
                 throw new InappropriateFunctionPointException("Точка с таким X уже существует");
             }
         }
 
-        if (pointsCount == points.length) {
-            FunctionPoint[] newPoints = new FunctionPoint[points.length * 2];
-            System.arraycopy(points, 0, newPoints, 0, pointsCount);
-            points = newPoints;
+        if (pointsCount == xs.length) {
+            int capacity = xs.length * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            if (slopes != null) {
+                slopes = Arrays.copyOf(slopes, capacity);
+            }
         }
 
         int insertIndex = 0;
-        while (insertIndex < pointsCount && points[insertIndex].getX() < newX - Epsilon) {
+        while (insertIndex < pointsCount && xs[insertIndex] < newX - Epsilon) {
             insertIndex++;
         }
 
-        System.arraycopy(points, insertIndex, points, insertIndex + 1, pointsCount - insertIndex);
+        System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+        System.arraycopy(ys, insertIndex, ys, insertIndex + 1, pointsCount - insertIndex);
+        if (slopes != null && insertIndex < pointsCount - 1) {
+            System.arraycopy(slopes, insertIndex, slopes, insertIndex + 1, pointsCount - 1 - insertIndex);
+        }
 
-        points[insertIndex] = new FunctionPoint(point);
+        xs[insertIndex] = newX;
+        ys[insertIndex] = point.getY();
         pointsCount++;
+        updateSlopes(insertIndex - 1, insertIndex);
+        if (integralIndex != null) {
+            integralIndex.pointInserted(insertIndex, newX, ys[insertIndex]);
+        }
+        if (interpolation != null) {
+            interpolation.pointInserted(insertIndex, newX, ys[insertIndex]);
+        }
     }
 
     public String toString() {
@@ -232,7 +478,7 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
             if (i > 0) {
                 sb.append(", ");
             }
-            sb.append(points[i].toString());
+            sb.append(new FunctionPoint(xs[i], ys[i]).toString());
         }
         sb.append("}");
         return sb.toString();
@@ -253,9 +499,9 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
         if (o instanceof ArrayTabulatedFunction) {
             ArrayTabulatedFunction other = (ArrayTabulatedFunction) o;
 
-            // Прямой доступ к массивам для ускорения
+            // Прямой доступ к массивам для ускорения, с той же погрешностью, что и в FunctionPoint.equals
             for (int i = 0; i < pointsCount; i++) {
-                if (!points[i].equals(other.points[i])) {
+                if (Math.abs(xs[i] - other.xs[i]) >= Epsilon || Math.abs(ys[i] - other.ys[i]) >= Epsilon) {
                     return false;
                 }
             }
@@ -279,7 +525,7 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
 
         // Вычисляем XOR всех хэш-кодов точек
         for (int i = 0; i < pointsCount; i++) {
-            hash ^= points[i].hashCode();
+            hash ^= FunctionPoint.hashCode(xs[i], ys[i]);
         }
 
         return hash;
@@ -287,23 +533,22 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
 
     public TabulatedFunction clone() {
         try {
-            // Создаём копию массива точек (глубокое копирование)
-            FunctionPoint[] clonedPoints = new FunctionPoint[points.length];
-            for (int i = 0; i < pointsCount; i++) {
-                clonedPoints[i] = new FunctionPoint(points[i]); // Конструктор копирования
-            }
-
-            // Создаём новый объект с скопированными данными
+            // Копирование массивов координат (глубокое копирование)
             ArrayTabulatedFunction cloned = (ArrayTabulatedFunction) super.clone();
-            cloned.points = clonedPoints;
-            cloned.pointsCount = this.pointsCount;
+            cloned.xs = xs.clone();
+            cloned.ys = ys.clone();
+            cloned.slopes = slopes == null ? null : slopes.clone();
+            cloned.integralIndex = integralIndex == null ? null : new SegmentAreaIndex(xs, ys, pointsCount);
+            cloned.interpolation = interpolation == null ? null
+                    : new InterpolationKernel(xs, ys, pointsCount, interpolation.getMethod());
+            cloned.segmentHint = ThreadLocal.withInitial(() -> new int[1]);
 
             return cloned;
         } catch (CloneNotSupportedException e) {
             // Альтернативный способ клонирования через конструктор
             FunctionPoint[] pointsCopy = new FunctionPoint[pointsCount];
             for (int i = 0; i < pointsCount; i++) {
-                pointsCopy[i] = new FunctionPoint(points[i]);
+                pointsCopy[i] = new FunctionPoint(xs[i], ys[i]);
             }
             return new ArrayTabulatedFunction(pointsCopy);
         }
@@ -322,7 +567,9 @@ public class ArrayTabulatedFunction implements TabulatedFunction, Externalizable
                     throw new java.util.NoSuchElementException("No more elements");
                 }
                 // Возвращаем копию точки для защиты инкапсуляции
-                return new FunctionPoint(points[currentIndex++]);
+                FunctionPoint point = new FunctionPoint(xs[currentIndex], ys[currentIndex]);
+                currentIndex++;
+                return point;
             }
 
             public void remove() {
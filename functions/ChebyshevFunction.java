@@ -0,0 +1,257 @@
+package functions;
+
+// Приближение гладкой функции на отрезке [a; b] рядом Чебышёва p(x) = sum c_k T_k(t), t = (x - mid) / half.
+// Коэффициенты получаются дискретным косинусным преобразованием (DCT-I через БПФ) значений в узлах
+// Чебышёва-Лобатто t_j = cos(pi j / n); n удваивается, пока коэффициенты не убывают до заданной точности,
+// при этом уже вычисленные значения переиспользуются. Значение вычисляется схемой Кленшоу за O(степени)
+public final class ChebyshevFunction implements Function {
+    private static final int MIN_POINTS = 16;
+    private static final int MAX_POINTS = 1 << 16;
+    // Ошибка округления одного коэффициента DCT в единицах ulp(max|f|)
+    private static final double ROUNDING_ULPS = 4.0;
+
+    private final double leftX;
+    private final double rightX;
+    private final double middle;
+    private final double halfLength;
+    private final double[] coefficients;
+    private final double errorBound;
+
+    private ChebyshevFunction(double leftX, double rightX, double[] coefficients, double errorBound) {
+        this.leftX = leftX;
+        this.rightX = rightX;
+        this.middle = leftX + (rightX - leftX) / 2.0;
+        this.halfLength = (rightX - leftX) / 2.0;
+        this.coefficients = coefficients;
+        this.errorBound = errorBound;
+    }
+
+    // Приближение f на [leftX; rightX] с оценкой погрешности не больше tolerance.
+    // Если точность не достигается многочленом степени MAX_POINTS (функция не гладкая) или tolerance
+    // ниже уровня ошибок округления её значений, выбрасывается IllegalArgumentException
+    static ChebyshevFunction approximate(Function f, double leftX, double rightX, double tolerance) {
+        if (!(leftX < rightX) || Double.isInfinite(leftX) || Double.isInfinite(rightX)) {
+            throw new IllegalArgumentException("Отрезок приближения должен быть конечным, левая граница - меньше правой");
+        }
+        if (leftX < f.getLeftDomainBorder() || rightX > f.getRightDomainBorder()) {
+            throw new IllegalArgumentException("Отрезок приближения выходит за область определения функции");
+        }
+        if (!(tolerance > 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("Допустимая погрешность должна быть положительным числом");
+        }
+
+        double middle = leftX + (rightX - leftX) / 2.0;
+        double halfLength = (rightX - leftX) / 2.0;
+        double[] values = new double[0];
+        for (int n = MIN_POINTS; n <= MAX_POINTS; n *= 2) {
+            values = sample(f, values, n, middle, halfLength, leftX, rightX);
+            double[] c = transform(values);
+
+            // tail[k] = |c_k| + ... + |c_n|
+            double[] tail = new double[n + 2];
+            for (int k = n; k >= 0; k--) {
+                tail[k] = tail[k + 1] + Math.abs(c[k]);
+            }
+
+            // Верхняя половина спектра оценивает и коэффициенты за пределами n, которые наложились
+            // на вычисленные (алиасинг); пока она не мала, функция не разрешена на этой сетке
+            double aliasing = tail[n / 2];
+            if (aliasing > tolerance / 2) {
+                // Верхняя половина спектра уже на уровне ошибок округления: с ростом n сумма шума только растёт
+                if (aliasing <= (n / 2) * ROUNDING_ULPS * Math.ulp(maxAbs(values))) {
+                    break;
+                }
+                continue;
+            }
+
+            int degree = 0;
+            while (tail[degree + 1] > tolerance / 2) {
+                degree++;
+            }
+            double[] kept = new double[degree + 1];
+            System.arraycopy(c, 0, kept, 0, degree + 1);
+            return new ChebyshevFunction(leftX, rightX, kept, tail[degree + 1] + aliasing);
+        }
+        throw new IllegalArgumentException("Точность " + tolerance + " не достигнута: функция не гладкая на отрезке "
+                + "или точность ниже ошибок округления её значений");
+    }
+
+    private static double maxAbs(double[] values) {
+        double max = 0.0;
+        for (double value : values) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+
+    // Значения в n + 1 узлах Лобатто; узлы сетки n/2 совпадают с чётными узлами сетки n
+    private static double[] sample(Function f, double[] previous, int n, double middle, double halfLength,
+                                   double leftX, double rightX) {
+        double[] values = new double[n + 1];
+        int step = previous.length == 0 ? 1 : 2;
+        for (int j = 0; j < previous.length; j++) {
+            values[2 * j] = previous[j];
+        }
+
+        int count = previous.length == 0 ? n + 1 : n / 2;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 0, j = step - 1; i < count; i++, j += step) {
+            // sin вместо cos(pi j / n) даёт узлы, точно симметричные относительно середины
+            xs[i] = middle + halfLength * Math.sin(Math.PI * (n - 2 * j) / (2.0 * n));
+        }
+        if (step == 1) {
+            xs[0] = rightX;
+            xs[n] = leftX;
+        }
+        f.getFunctionValues(xs, ys, 0, count);
+
+        for (int i = 0, j = step - 1; i < count; i++, j += step) {
+            if (Double.isNaN(ys[i]) || Double.isInfinite(ys[i])) {
+                throw new IllegalArgumentException("Функция не определена или не ограничена в точке " + xs[i]);
+            }
+            values[j] = ys[i];
+        }
+        return values;
+    }
+
+    // DCT-I: c_k = (2 / n) sum'' v_j cos(pi j k / n), у c_0 и c_n дополнительный множитель 1/2.
+    // Вычисляется как БПФ чётного продолжения длины 2n
+    private static double[] transform(double[] values) {
+        int n = values.length - 1;
+        int size = 2 * n;
+        double[] re = new double[size];
+        double[] im = new double[size];
+        for (int j = 0; j <= n; j++) {
+            re[j] = values[j];
+        }
+        for (int j = 1; j < n; j++) {
+            re[size - j] = values[j];
+        }
+        fft(re, im);
+
+        double[] c = new double[n + 1];
+        for (int k = 0; k <= n; k++) {
+            c[k] = re[k] / n;
+        }
+        c[0] /= 2;
+        c[n] /= 2;
+        return c;
+    }
+
+    // Итеративное БПФ по основанию 2 на месте; длина - степень двойки
+    private static void fft(double[] re, double[] im) {
+        int size = re.length;
+        for (int i = 1, j = 0; i < size; i++) {
+            int bit = size >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length >> 1;
+            // Поворачивающие множители вычисляются напрямую, без накопления ошибки умножениями
+            double[] cos = new double[half];
+            double[] sin = new double[half];
+            for (int k = 0; k < half; k++) {
+                cos[k] = Math.cos(2 * Math.PI * k / length);
+                sin[k] = -Math.sin(2 * Math.PI * k / length);
+            }
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    int p = start + k;
+                    int q = p + half;
+                    double tRe = re[q] * cos[k] - im[q] * sin[k];
+                    double tIm = re[q] * sin[k] + im[q] * cos[k];
+                    re[q] = re[p] - tRe;
+                    im[q] = im[p] - tIm;
+                    re[p] += tRe;
+                    im[p] += tIm;
+                }
+            }
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return leftX;
+    }
+
+    public double getRightDomainBorder() {
+        return rightX;
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < leftX || x > rightX) {
+            return Double.NaN;
+        }
+        return clenshaw((x - middle) / halfLength);
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            out[i] = x < leftX || x > rightX ? Double.NaN : clenshaw((x - middle) / halfLength);
+        }
+    }
+
+    private double clenshaw(double t) {
+        t = Math.max(-1.0, Math.min(1.0, t));
+        double b1 = 0.0;
+        double b2 = 0.0;
+        for (int k = coefficients.length - 1; k > 0; k--) {
+            double b0 = 2.0 * t * b1 - b2 + coefficients[k];
+            b2 = b1;
+            b1 = b0;
+        }
+        return t * b1 - b2 + coefficients[0];
+    }
+
+    // Первообразная, равная нулю в левой границе, - снова ряд Чебышёва степени на единицу больше:
+    // int T_0 = T_1, int T_1 = T_2 / 4, int T_k = T_k+1 / (2(k+1)) - T_k-1 / (2(k-1)).
+    // Погрешность интеграла не больше погрешности приближения, умноженной на длину отрезка
+    public Function getAntiderivative() {
+        int degree = coefficients.length - 1;
+        double[] c = new double[degree + 3];
+        System.arraycopy(coefficients, 0, c, 0, degree + 1);
+
+        double[] integral = new double[degree + 2];
+        integral[1] = (c[0] - c[2] / 2.0) * halfLength;
+        for (int k = 2; k <= degree + 1; k++) {
+            integral[k] = (c[k - 1] - c[k + 1]) / (2.0 * k) * halfLength;
+        }
+        // F(a) = F(t = -1) = 0
+        double atLeft = 0.0;
+        for (int k = degree + 1; k >= 1; k--) {
+            atLeft += k % 2 == 0 ? integral[k] : -integral[k];
+        }
+        integral[0] = -atLeft;
+        return new ChebyshevFunction(leftX, rightX, integral, errorBound * (rightX - leftX));
+    }
+
+    // Оценка максимальной погрешности приближения на отрезке (без ошибок округления порядка 1e-16 * max|f|)
+    public double getErrorBound() {
+        return errorBound;
+    }
+
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    public double[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    public String toString() {
+        return "Ряд Чебышёва степени " + getDegree() + " на [" + leftX + "; " + rightX + "], погрешность " + errorBound;
+    }
+}
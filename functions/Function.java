@@ -4,4 +4,18 @@ public interface Function {
     public double getLeftDomainBorder();
     public double getRightDomainBorder();
     public double getFunctionValue(double x);
+
+    // Пакетное вычисление: out[i] = getFunctionValue(xs[i]) для i из [from; to).
+    // Массивы xs и out не должны совпадать; реализации переопределяют метод, чтобы обрабатывать массив целиком
+    public default void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = getFunctionValue(xs[i]);
+        }
+    }
+
+    // Первообразная в замкнутой форме на области определения функции или null, если она неизвестна.
+    // Functions.integrate вычисляет по ней интеграл как F(b) - F(a) вместо численного суммирования
+    public default Function getAntiderivative() {
+        return null;
+    }
 }
@@ -0,0 +1,294 @@
+package functions;
+
+import functions.basic.*;
+import functions.meta.*;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Компиляция дерева функций из functions.basic и functions.meta в один класс без виртуальных вызовов.
+// Генерируется исходный текст на Java, он компилируется в памяти и загружается как скрытый класс
+// в пакете functions. Неизвестные функции (в том числе табулированные) остаются вызовами через массив nodes
+final class FunctionCompiler {
+    private static final String CLASS_NAME = "CompiledFunction";
+    // Предельное число узлов в сгенерированном коде; при общих поддеревьях код растёт быстрее дерева
+    private static final int MAX_NODES = 2000;
+
+    private final StringBuilder body = new StringBuilder();
+    private final List<Function> nodes = new ArrayList<>();
+    private final Map<Function, Integer> nodeIndexes = new IdentityHashMap<>();
+    private int variables;
+
+    private FunctionCompiler() {
+    }
+
+    // Скомпилированная функция или сама функция, если компиляция невозможна
+    static Function compile(Function function) {
+        if (!isKnown(function)) {
+            return function;
+        }
+
+        try {
+            FunctionCompiler compiler = new FunctionCompiler();
+            String source = compiler.generate(function);
+            if (source == null) {
+                return function;
+            }
+
+            byte[] bytes = compileSource(source);
+            if (bytes == null) {
+                return function;
+            }
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            Function[] nodes = compiler.nodes.toArray(new Function[0]);
+            return instantiate(lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, Function[].class)), nodes);
+        } catch (Exception | LinkageError e) {
+            // Нет компилятора, нет доступа к классам функций или слишком большой метод
+            return function;
+        }
+    }
+
+    // MethodHandle.invoke объявляет Throwable; ошибки JVM пропускаются наружу, а не считаются неудачей компиляции
+    private static Function instantiate(MethodHandle constructor, Function[] nodes) throws Exception {
+        try {
+            return (Function) constructor.invoke(nodes);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Узлы, которые компилятор умеет разворачивать; подклассы считаются неизвестными.
+    // Элементарные функции с уровнем точности, отличным от STRICT, вызываются как неизвестные.
+    // Границы подставляются константами, поэтому обёртки над изменяемыми табулированными функциями тоже
+    private static boolean isKnown(Function f) {
+        Class<?> c = f.getClass();
+        if (c == Sin.class || c == Cos.class || c == Tan.class) {
+            return ((TrigonometricFunction) f).getAccuracy() == Accuracy.STRICT;
+        }
+        if (c == Exp.class) {
+            return ((Exp) f).getAccuracy() == Accuracy.STRICT;
+        }
+        if (c == Log.class) {
+            return ((Log) f).getAccuracy() == Accuracy.STRICT;
+        }
+        return c == Const.class || (c == Shift.class || c == Scale.class || c == Affine.class
+                || c == Power.class || c == Sum.class || c == Mult.class || c == Composition.class)
+                && Functions.hasFixedDomain(f);
+    }
+
+    private String generate(Function root) {
+        node(root); // Корень всегда nodes[0]: через него отдаётся первообразная
+        String result = emit(root, "x");
+        if (nodes.size() + variables > MAX_NODES) {
+            return null;
+        }
+
+        return "package functions;\n"
+                + "public final class " + CLASS_NAME + " implements Function {\n"
+                + "    private final Function[] nodes;\n"
+                + "    public " + CLASS_NAME + "(Function[] nodes) { this.nodes = nodes; }\n"
+                + "    public double getLeftDomainBorder() { return " + border(root, true) + "; }\n"
+                + "    public double getRightDomainBorder() { return " + border(root, false) + "; }\n"
+                + "    public Function getAntiderivative() { return nodes[0].getAntiderivative(); }\n"
+                + "    public double getFunctionValue(double x) {\n"
+                + body
+                + "        return " + result + ";\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private int node(Function f) {
+        Integer index = nodeIndexes.get(f);
+        if (index == null) {
+            index = nodes.size();
+            nodes.add(f);
+            nodeIndexes.put(f, index);
+        }
+        return index;
+    }
+
+    // Обёртки из functions.meta вычисляют границы один раз при создании, поэтому их можно подставить константой
+    private static String border(Function f, boolean left) {
+        return literal(left ? f.getLeftDomainBorder() : f.getRightDomainBorder());
+    }
+
+    // Точная запись константы double в исходном тексте
+    private static String literal(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        return "(" + Double.toHexString(value) + ")";
+    }
+
+    private String variable(String expression) {
+        String name = "v" + variables++;
+        body.append("        double ").append(name).append(" = ").append(expression).append(";\n");
+        return name;
+    }
+
+    private void line(String statement) {
+        body.append("        ").append(statement).append("\n");
+    }
+
+    private void returnNaNIf(String condition) {
+        line("if (" + condition + ") return Double.NaN;");
+    }
+
+    private void checkDomain(Function f, String arg) {
+        returnNaNIf(arg + " < " + border(f, true) + " || " + arg + " > " + border(f, false));
+    }
+
+    // Код вычисления f(arg) повторяет getFunctionValue соответствующего класса. Любой узел возвращает NaN,
+    // если NaN вернуло его поддерево, поэтому при NaN в середине вычисления весь метод сразу возвращает NaN.
+    // Возвращается имя переменной или выражение со значением
+    private String emit(Function f, String arg) {
+        if (variables > MAX_NODES) {
+            return "Double.NaN";
+        }
+
+        Class<?> c = f.getClass();
+        if (!isKnown(f)) {
+            return variable("nodes[" + node(f) + "].getFunctionValue(" + arg + ")");
+        }
+        if (c == Sin.class) {
+            return variable("Math.sin(" + arg + ")");
+        }
+        if (c == Cos.class) {
+            return variable("Math.cos(" + arg + ")");
+        }
+        if (c == Exp.class) {
+            return variable("Math.exp(" + arg + ")");
+        }
+        if (c == Tan.class) {
+            returnNaNIf("Math.abs(Math.cos(" + arg + ")) < 1e-10");
+            return variable("Math.tan(" + arg + ")");
+        }
+        if (c == Log.class) {
+            returnNaNIf(arg + " <= 0");
+            return variable("Math.log(" + arg + ") / " + literal(Math.log(((Log) f).getBase())));
+        }
+        if (c == Const.class) {
+            return literal(((Const) f).getValue());
+        }
+        if (c == Shift.class) {
+            Shift shift = (Shift) f;
+            return emitAffine(f, shift.getOriginal(), arg, 1, 1, shift.getShiftX(), shift.getShiftY());
+        }
+        if (c == Scale.class) {
+            Scale scale = (Scale) f;
+            return emitAffine(f, scale.getOriginal(), arg, scale.getScaleX(), scale.getScaleY(), 0, 0);
+        }
+        if (c == Affine.class) {
+            Affine affine = (Affine) f;
+            return emitAffine(f, affine.getOriginal(), arg, affine.getScaleX(), affine.getScaleY(),
+                    affine.getShiftX(), affine.getShiftY());
+        }
+        if (c == Power.class) {
+            Power power = (Power) f;
+            double p = power.getPower();
+            checkDomain(f, arg);
+            String value = emit(power.getBaseFunction(), arg);
+            returnNaNIf("Double.isNaN(" + value + ")");
+            if (p != (int) p) {
+                returnNaNIf(value + " < 0");
+            }
+            if (Math.abs(p) < 1e-10) {
+                returnNaNIf("Math.abs(" + value + ") < 1e-10");
+            }
+            return variable("Math.pow(" + value + ", " + literal(p) + ")");
+        }
+        if (c == Sum.class || c == Mult.class) {
+            Function first = c == Sum.class ? ((Sum) f).getFirst() : ((Mult) f).getFirst();
+            Function second = c == Sum.class ? ((Sum) f).getSecond() : ((Mult) f).getSecond();
+            checkDomain(f, arg);
+            String value1 = emit(first, arg);
+            String value2 = emit(second, arg);
+            returnNaNIf("Double.isNaN(" + value1 + ") || Double.isNaN(" + value2 + ")");
+            return variable(value1 + (c == Sum.class ? " + " : " * ") + value2);
+        }
+
+        Composition composition = (Composition) f;
+        checkDomain(f, arg);
+        String innerValue = emit(composition.getInner(), arg);
+        returnNaNIf("Double.isNaN(" + innerValue + ")");
+        checkDomain(composition.getOuter(), innerValue);
+        return emit(composition.getOuter(), innerValue);
+    }
+
+    // Shift, Scale и Affine: scaleY * f((x - shiftX) / scaleX) + shiftY с теми же операциями, что в классах
+    private String emitAffine(Function f, Function original, String arg,
+                              double scaleX, double scaleY, double shiftX, double shiftY) {
+        checkDomain(f, arg);
+
+        String originalX;
+        if (f instanceof Shift) {
+            originalX = variable(arg + " - " + literal(shiftX));
+        } else if (f instanceof Scale) {
+            originalX = variable(arg + " / " + literal(scaleX));
+        } else {
+            originalX = variable("(" + arg + " - " + literal(shiftX) + ") / " + literal(scaleX));
+        }
+        checkDomain(original, originalX);
+
+        String value = emit(original, originalX);
+        returnNaNIf("Double.isNaN(" + value + ")");
+        if (f instanceof Shift) {
+            return variable(value + " + " + literal(shiftY));
+        }
+        if (f instanceof Scale) {
+            return variable(literal(scaleY) + " * " + value);
+        }
+        return variable(literal(scaleY) + " * " + value + " + " + literal(shiftY));
+    }
+
+    private static byte[] compileSource(String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+                URI.create("string:///functions/" + CLASS_NAME + ".java"), JavaFileObject.Kind.SOURCE) {
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        JavaFileObject classFile = new SimpleJavaFileObject(
+                URI.create("bytes:///functions/" + CLASS_NAME + ".class"), JavaFileObject.Kind.CLASS) {
+            public OutputStream openOutputStream() {
+                return bytes;
+            }
+        };
+
+        StandardJavaFileManager standardManager = compiler.getStandardFileManager(null, null, null);
+        JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(standardManager) {
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                return classFile;
+            }
+        };
+
+        List<String> options = List.of("-g:none", "-proc:none", "-classpath", System.getProperty("java.class.path"));
+        boolean success = compiler.getTask(null, manager, diagnostics -> { }, options, null,
+                Collections.singletonList(sourceFile)).call();
+        return success ? bytes.toByteArray() : null;
+    }
+}
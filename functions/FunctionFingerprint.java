@@ -0,0 +1,143 @@
+package functions;
+
+import functions.basic.*;
+import functions.meta.*;
+
+import java.nio.charset.StandardCharsets;
+
+// Структурный отпечаток дерева функций: 64-битный FNV-1a по именам классов узлов и битам их параметров.
+// Не зависит от адресов объектов и запуска JVM, поэтому пригоден как ключ постоянного кэша.
+// Кэширующие обёртки прозрачны: отпечаток Cached(f) совпадает с отпечатком f
+final class FunctionFingerprint {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long hash = FNV_OFFSET_BASIS;
+
+    private FunctionFingerprint() {
+    }
+
+    static long of(Function function) {
+        FunctionFingerprint fingerprint = new FunctionFingerprint();
+        fingerprint.add(function);
+        return fingerprint.hash;
+    }
+
+    private void add(Function f) {
+        if (f instanceof Cached) {
+            add(((Cached) f).getOriginal());
+            return;
+        }
+        if (f instanceof PersistentCached) {
+            add(((PersistentCached) f).getOriginal());
+            return;
+        }
+        if (f instanceof UnmodifiableTabulatedFunction) {
+            add(((UnmodifiableTabulatedFunction) f).getSource());
+            return;
+        }
+
+        Class<?> c = f.getClass();
+        addString(c.getName());
+
+        // Уровень точности входит в отпечаток, только если он отличается от STRICT: отпечатки прежних деревьев не меняются
+        if (c == Sin.class || c == Cos.class || c == Tan.class) {
+            addAccuracy(((TrigonometricFunction) f).getAccuracy());
+        } else if (c == Exp.class) {
+            addAccuracy(((Exp) f).getAccuracy());
+        } else if (c == Log.class) {
+            addDouble(((Log) f).getBase());
+            addAccuracy(((Log) f).getAccuracy());
+        } else if (c == Const.class) {
+            addDouble(((Const) f).getValue());
+        } else if (c == Shift.class) {
+            Shift shift = (Shift) f;
+            add(shift.getOriginal());
+            addDouble(shift.getShiftX());
+            addDouble(shift.getShiftY());
+        } else if (c == Scale.class) {
+            Scale scale = (Scale) f;
+            add(scale.getOriginal());
+            addDouble(scale.getScaleX());
+            addDouble(scale.getScaleY());
+        } else if (c == Affine.class) {
+            Affine affine = (Affine) f;
+            add(affine.getOriginal());
+            addDouble(affine.getScaleX());
+            addDouble(affine.getScaleY());
+            addDouble(affine.getShiftX());
+            addDouble(affine.getShiftY());
+        } else if (c == Power.class) {
+            Power power = (Power) f;
+            add(power.getBaseFunction());
+            addDouble(power.getPower());
+        } else if (c == Sum.class) {
+            add(((Sum) f).getFirst());
+            add(((Sum) f).getSecond());
+        } else if (c == Mult.class) {
+            add(((Mult) f).getFirst());
+            add(((Mult) f).getSecond());
+        } else if (c == Composition.class) {
+            add(((Composition) f).getOuter());
+            add(((Composition) f).getInner());
+        } else if (c == ChebyshevFunction.class) {
+            ChebyshevFunction chebyshev = (ChebyshevFunction) f;
+            addDouble(chebyshev.getLeftDomainBorder());
+            addDouble(chebyshev.getRightDomainBorder());
+            double[] coefficients = chebyshev.getCoefficients();
+            addLong(coefficients.length);
+            for (double coefficient : coefficients) {
+                addDouble(coefficient);
+            }
+        } else if (f instanceof TabulatedFunction) {
+            // Табулированная функция полностью задаётся своими точками и способом интерполяции
+            TabulatedFunction tabulated = (TabulatedFunction) f;
+            addLong(tabulated.getPointsCount());
+            for (FunctionPoint point : tabulated) {
+                addDouble(point.getX());
+                addDouble(point.getY());
+            }
+            // Способ интерполяции - только если он не линейный, как и уровень точности
+            InterpolationMethod method = InterpolationMethod.LINEAR;
+            if (f instanceof ArrayTabulatedFunction) {
+                method = ((ArrayTabulatedFunction) f).getInterpolationMethod();
+            } else if (f instanceof LinkedListTabulatedFunction) {
+                method = ((LinkedListTabulatedFunction) f).getInterpolationMethod();
+            }
+            if (method != InterpolationMethod.LINEAR) {
+                addString(method.name());
+            }
+        } else {
+            throw new IllegalArgumentException("Отпечаток не определён для функций класса " + c.getName());
+        }
+    }
+
+    private void addAccuracy(Accuracy accuracy) {
+        if (accuracy != Accuracy.STRICT) {
+            addString(accuracy.name());
+        }
+    }
+
+    private void addString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        addLong(bytes.length);
+        for (byte b : bytes) {
+            addByte(b);
+        }
+    }
+
+    private void addDouble(double value) {
+        addLong(Double.doubleToLongBits(value));
+    }
+
+    private void addLong(long value) {
+        for (int i = 0; i < 8; i++) {
+            addByte((byte) (value >>> (8 * i)));
+        }
+    }
+
+    private void addByte(byte b) {
+        hash ^= b & 0xff;
+        hash *= FNV_PRIME;
+    }
+}
@@ -3,6 +3,8 @@ package functions;
 import java.io.Serializable;
 
 public class FunctionPoint implements Serializable, Cloneable{
+    // Значение, вычисленное по исходной версии класса: ранее записанные объекты остаются читаемыми
+    private static final long serialVersionUID = -482329836692839278L;
     private double x;
     private double y;
 
@@ -53,6 +55,11 @@ public class FunctionPoint implements Serializable, Cloneable{
     }
 
     public int hashCode() {
+        return hashCode(x, y);
+    }
+
+    // Хэш-код точки по координатам: используется и табулированными функциями, не создающими объекты точек
+    static int hashCode(double x, double y) {
         // Преобразуем double в long, затем разбиваем на два int
         long xBits = Double.doubleToLongBits(x);
         long yBits = Double.doubleToLongBits(y);
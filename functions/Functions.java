@@ -1,17 +1,56 @@
 package functions;
 
+import functions.basic.*;
 import functions.meta.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 public final class Functions {
+    // Количество узлов сетки, вычисляемых за один пакетный вызов при интегрировании
+    private static final int INTEGRATION_BATCH_SIZE = 1024;
+    // Число узлов в блоке параллельного интегрирования; разбиение на блоки не зависит от числа потоков
+    private static final int PARALLEL_BLOCK_SIZE = 4096;
+    // Предельное число отрезков адаптивного интегрирования
+    private static final int MAX_ADAPTIVE_INTERVALS = 10000;
+
+    private static final int KRONROD_POINTS = 15;
+
+    // Узлы и веса квадратуры Гаусса-Кронрода G7-K15 на [-1; 1] (узлы с нечётными номерами - узлы Гаусса)
+    private static final double[] KRONROD_NODES = {
+            0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    private static final double[] KRONROD_WEIGHTS = {
+            0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] GAUSS_WEIGHTS = {
+            0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
     private Functions() {
         throw new AssertionError("Нельзя создавать экземпляры класса Functions");
     }
 
+    // Вспомогательные методы возвращают упрощённое дерево: вложенные Shift, Scale и Affine сворачиваются
+    // в один узел, константы вычисляются сразу, тождественные обёртки убираются. Значения, включая NaN
+    // вне области определения, совпадают с несвёрнутым деревом с точностью до округления
     public static Function shift(Function f, double shiftX, double shiftY) {
         if (f == null) {
             throw new IllegalArgumentException("Функция не может быть null");
         }
-        return new Shift(f, shiftX, shiftY);
+        return affine(f, 1, 1, shiftX, shiftY);
     }
 
     public static Function scale(Function f, double scaleX, double scaleY) {
@@ -21,13 +60,25 @@ public final class Functions {
         if (Math.abs(scaleX) < 1e-10) {
             throw new IllegalArgumentException("Коэффициент масштабирования по X не может быть нулевым");
         }
-        return new Scale(f, scaleX, scaleY);
+        return affine(f, scaleX, scaleY, 0, 0);
     }
 
     public static Function power(Function f, double power) {
         if (f == null) {
             throw new IllegalArgumentException("Функция не может быть null");
         }
+
+        // (f^p)^q = f^(pq) для целых ненулевых p и q; для дробных показателей меняется область значений
+        if (f instanceof Power && isNonZeroInteger(power) && isNonZeroInteger(((Power) f).getPower())) {
+            Power inner = (Power) f;
+            return power(inner.getBaseFunction(), inner.getPower() * power);
+        }
+        if (f instanceof Const) {
+            return new Const(new Power(f, power).getFunctionValue(0));
+        }
+        if (power == 1 && checksOwnDomain(f)) {
+            return f;
+        }
         return new Power(f, power);
     }
 
@@ -35,6 +86,17 @@ public final class Functions {
         if (f1 == null || f2 == null) {
             throw new IllegalArgumentException("Функции не могут быть null");
         }
+
+        // Прибавление константы - сдвиг по Y
+        if (f1 instanceof Const && f2 instanceof Const) {
+            return new Const(((Const) f1).getValue() + ((Const) f2).getValue());
+        }
+        if (f2 instanceof Const) {
+            return affine(f1, 1, 1, 0, ((Const) f2).getValue());
+        }
+        if (f1 instanceof Const) {
+            return affine(f2, 1, 1, 0, ((Const) f1).getValue());
+        }
         return new Sum(f1, f2);
     }
 
@@ -42,9 +104,96 @@ public final class Functions {
         if (f1 == null || f2 == null) {
             throw new IllegalArgumentException("Функции не могут быть null");
         }
+
+        // Умножение на константу - масштабирование по Y
+        if (f1 instanceof Const && f2 instanceof Const) {
+            return new Const(((Const) f1).getValue() * ((Const) f2).getValue());
+        }
+        if (f2 instanceof Const) {
+            return affine(f1, 1, ((Const) f2).getValue(), 0, 0);
+        }
+        if (f1 instanceof Const) {
+            return affine(f2, 1, ((Const) f1).getValue(), 0, 0);
+        }
         return new Mult(f1, f2);
     }
 
+    // Сворачивание scaleY * f((x - shiftX) / scaleX) + shiftY с аффинными обёртками функции f.
+    // Результат - Shift или Scale, если их достаточно, иначе Affine
+    private static Function affine(Function f, double scaleX, double scaleY, double shiftX, double shiftY) {
+        while (true) {
+            double innerScaleX, innerScaleY, innerShiftX, innerShiftY;
+            Function inner;
+            if (f instanceof Shift) {
+                Shift shift = (Shift) f;
+                inner = shift.getOriginal();
+                innerScaleX = 1;
+                innerScaleY = 1;
+                innerShiftX = shift.getShiftX();
+                innerShiftY = shift.getShiftY();
+            } else if (f instanceof Scale) {
+                Scale scale = (Scale) f;
+                inner = scale.getOriginal();
+                innerScaleX = scale.getScaleX();
+                innerScaleY = scale.getScaleY();
+                innerShiftX = 0;
+                innerShiftY = 0;
+            } else if (f instanceof Affine) {
+                Affine affine = (Affine) f;
+                inner = affine.getOriginal();
+                innerScaleX = affine.getScaleX();
+                innerScaleY = affine.getScaleY();
+                innerShiftX = affine.getShiftX();
+                innerShiftY = affine.getShiftY();
+            } else {
+                break;
+            }
+
+            // Слишком маленький общий коэффициент по X не пройдёт проверку конструктора, а при нулевом
+            // scaleY свёртка меняет знак нулевого результата - в этих случаях не сворачиваем
+            if (Math.abs(scaleX * innerScaleX) < 1e-10 || scaleY == 0) {
+                break;
+            }
+            shiftX = shiftX + scaleX * innerShiftX;
+            shiftY = scaleY * innerShiftY + shiftY;
+            scaleX = scaleX * innerScaleX;
+            scaleY = scaleY * innerScaleY;
+            f = inner;
+        }
+
+        if (f instanceof Const) {
+            return new Const(scaleY * ((Const) f).getValue() + shiftY);
+        }
+        if (scaleX == 1 && scaleY == 1 && shiftX == 0 && shiftY == 0 && checksOwnDomain(f)) {
+            return f;
+        }
+        if (scaleX == 1 && scaleY == 1) {
+            return new Shift(f, shiftX, shiftY);
+        }
+        if (shiftX == 0 && shiftY == 0) {
+            return new Scale(f, scaleX, scaleY);
+        }
+        return new Affine(f, scaleX, scaleY, shiftX, shiftY);
+    }
+
+    // Функции, которые сами возвращают NaN вне своей области определения: тождественная обёртка над ними
+    // ничего не меняет. Список явный и сравнивает классы точно, как в FunctionFingerprint: подклассы могут
+    // вести себя иначе, кэширующие обёртки Cached и PersistentCached лишь делегируют исходной функции,
+    // а табулированные функции принимают аргументы в пределах EPSILON за границами - обёртка над ними
+    // сужает область, и её оставляем
+    private static boolean checksOwnDomain(Function f) {
+        Class<?> c = f.getClass();
+        return c == Const.class || c == Sin.class || c == Cos.class || c == Tan.class
+                || c == Exp.class || c == Log.class
+                || c == Shift.class || c == Scale.class || c == Affine.class || c == Power.class
+                || c == Sum.class || c == Mult.class || c == Composition.class
+                || c == ChebyshevFunction.class;
+    }
+
+    private static boolean isNonZeroInteger(double value) {
+        return value != 0 && value == Math.rint(value) && !Double.isInfinite(value);
+    }
+
     public static Function composition(Function f1, Function f2) {
         if (f1 == null || f2 == null) {
             throw new IllegalArgumentException("Функции не могут быть null");
@@ -52,13 +201,161 @@ public final class Functions {
         return new Composition(f1, f2);
     }
 
+    // Потокобезопасный кэш не более чем capacity последних значений функции со счётчиками попаданий
+    public static Cached cached(Function f, int capacity) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return new Cached(f, capacity);
+    }
+
+    // Функция со значениями из постоянного кэша на диске; ключ - структурный отпечаток f
+    public static PersistentCached persistent(Function f, PersistentCache cache) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return new PersistentCached(f, cache);
+    }
+
+    // Структурный отпечаток дерева из functions.basic, functions.meta и табулированных функций:
+    // одинаков для одинаково построенных деревьев в разных запусках JVM
+    public static long fingerprint(Function f) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return FunctionFingerprint.of(f);
+    }
+
+    // true, если границы области определения функции не могут измениться после создания.
+    // Обёртки из functions.meta хранят переданные функции как есть и вычисляют границы один раз
+    // в конструкторе; если в поддереве есть изменяемая табулированная функция, обёртка перечитывает
+    // границы при каждом вызове. Табулированную функцию, обёрнутую в TabulatedFunctions.snapshot,
+    // изменить нельзя. Остальные функции должны иметь неизменные границы области определения
+    public static boolean hasFixedDomain(Function f) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        if (f instanceof TabulatedFunction) {
+            return f instanceof UnmodifiableTabulatedFunction;
+        }
+        if (f instanceof Shift) {
+            return ((Shift) f).hasFixedDomain();
+        }
+        if (f instanceof Scale) {
+            return ((Scale) f).hasFixedDomain();
+        }
+        if (f instanceof Affine) {
+            return ((Affine) f).hasFixedDomain();
+        }
+        if (f instanceof Power) {
+            return ((Power) f).hasFixedDomain();
+        }
+        if (f instanceof Sum) {
+            return ((Sum) f).hasFixedDomain();
+        }
+        if (f instanceof Mult) {
+            return ((Mult) f).hasFixedDomain();
+        }
+        if (f instanceof Composition) {
+            return ((Composition) f).hasFixedDomain();
+        }
+        if (f instanceof Cached) {
+            return ((Cached) f).hasFixedDomain();
+        }
+        if (f instanceof PersistentCached) {
+            return ((PersistentCached) f).hasFixedDomain();
+        }
+        return true;
+    }
+
+    // Приближение гладкой функции на [leftBorder; rightBorder] рядом Чебышёва с автоматическим выбором степени:
+    // погрешность не больше tolerance, значение вычисляется за O(степени) без поиска по таблице
+    public static ChebyshevFunction chebyshev(Function f, double leftBorder, double rightBorder, double tolerance) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return ChebyshevFunction.approximate(f, leftBorder, rightBorder, tolerance);
+    }
+
+    // Компиляция дерева функций из functions.basic и functions.meta в один скрытый класс без виртуальных
+    // вызовов между узлами. Остальные функции вызываются как есть; если компилятор Java недоступен,
+    // возвращается сама функция
+    public static Function compile(Function f) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
+        return FunctionCompiler.compile(f);
+    }
+
     public static double integrate(Function f, double leftBorder, double rightBorder, double step) {
+        checkIntegrationArguments(f, leftBorder, rightBorder, step);
+
+        // Табулированная функция кусочно-полиномиальна: интеграл вычисляется точно по узлам, шаг не нужен
+        if (f instanceof TabulatedFunction) {
+            return TabulatedFunctions.integrate((TabulatedFunction) f, leftBorder, rightBorder);
+        }
+
+        // Если известна первообразная, интеграл равен F(b) - F(a) и не зависит от шага
+        Function antiderivative = f.getAntiderivative();
+        if (antiderivative != null) {
+            double integral = antiderivative.getFunctionValue(rightBorder) - antiderivative.getFunctionValue(leftBorder);
+            if (Double.isNaN(integral)) {
+                throw new IllegalArgumentException("Функция не определена в точке на интервале интегрирования");
+            }
+            return integral;
+        }
+
+        double integral = 0.0;
+        double[] xs = new double[INTEGRATION_BATCH_SIZE + 1];
+        double[] ys = new double[INTEGRATION_BATCH_SIZE + 1];
+        xs[0] = leftBorder;
+        int evaluated = 0; // Значение в xs[0] уже вычислено на предыдущей порции
+
+        // Вычисляем интеграл методом трапеций, узлы сетки обрабатываются порциями
+        while (xs[0] < rightBorder) {
+            int count = 1;
+            while (count <= INTEGRATION_BATCH_SIZE && xs[count - 1] < rightBorder) {
+                xs[count] = Math.min(xs[count - 1] + step, rightBorder);
+                count++;
+            }
+            f.getFunctionValues(xs, ys, evaluated, count);
+
+            for (int i = 0; i + 1 < count; i++) {
+                double y1 = ys[i];
+                double y2 = ys[i + 1];
+
+                // Если функция не определена в какой-то точке, выбрасываем исключение
+                if (Double.isNaN(y1) || Double.isNaN(y2)) {
+                    throw new IllegalArgumentException("Функция не определена в точке на интервале интегрирования");
+                }
+
+                // Площадь трапеции
+                double segmentArea = (y1 + y2) * (xs[i + 1] - xs[i]) / 2.0;
+                integral += segmentArea;
+            }
+
+            xs[0] = xs[count - 1];
+            ys[0] = ys[count - 1];
+            evaluated = 1;
+        }
+
+        return integral;
+    }
+
+    private static void checkIntegrationArguments(Function f, double leftBorder, double rightBorder, double step) {
         if (f == null) {
             throw new IllegalArgumentException("Функция не может быть null");
         }
         if (step <= 0) {
             throw new IllegalArgumentException("Шаг интегрирования должен быть положительным");
         }
+        checkIntegrationBorders(f, leftBorder, rightBorder);
+    }
+
+    private static void checkIntegrationBorders(Function f, double leftBorder, double rightBorder) {
+        if (f == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
         if (leftBorder >= rightBorder) {
             throw new IllegalArgumentException("Левая граница должна быть меньше правой");
         }
@@ -68,29 +365,232 @@ public final class Functions {
             throw new IllegalArgumentException("Интервал интегрирования выходит за границы области определения функции");
         }
 
+    }
+
+    // Параллельное интегрирование на общем пуле ForkJoinPool
+    public static double integrateParallel(Function f, double leftBorder, double rightBorder, double step) {
+        return integrate(f, leftBorder, rightBorder, step, ForkJoinPool.commonPool());
+    }
+
+    // Параллельный метод трапеций на сетке x_k = leftBorder + k * step (последний узел - rightBorder).
+    // Каждый узел вычисляется один раз и входит в сумму с весом (h_k + h_k+1) / 2. Частичные суммы
+    // блоков фиксированного размера складываются по порядку, поэтому результат не зависит от числа потоков.
+    // Результат может отличаться от последовательного integrate в последних битах из-за другой формулы узлов.
+    public static double integrate(Function f, double leftBorder, double rightBorder, double step,
+                                   ExecutorService executor) {
+        checkIntegrationArguments(f, leftBorder, rightBorder, step);
+        if (executor == null) {
+            throw new IllegalArgumentException("Исполнитель не может быть null");
+        }
+
+        long segments = countSegments(leftBorder, rightBorder, step);
+        long nodes = segments + 1;
+        int blocks = (int) ((nodes + PARALLEL_BLOCK_SIZE - 1) / PARALLEL_BLOCK_SIZE);
+        double[] partialSums = new double[blocks];
+
+        // Блоки распределяются по задачам непрерывными диапазонами
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int tasks = Math.min(blocks, parallelism * 4);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int firstBlock = (int) ((long) blocks * t / tasks);
+            int lastBlock = (int) ((long) blocks * (t + 1) / tasks);
+            futures.add(executor.submit(() -> {
+                for (int j = firstBlock; j < lastBlock && !Thread.currentThread().isInterrupted(); j++) {
+                    partialSums[j] = integrateBlock(f, leftBorder, rightBorder, step, segments, j);
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Ошибка параллельного интегрирования", e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Параллельное интегрирование прервано", e);
+        }
+
         double integral = 0.0;
-        double currentX = leftBorder;
+        for (double partialSum : partialSums) {
+            integral += partialSum;
+        }
+        return integral;
+    }
+
+    // Количество отрезков сетки: последний, возможно неполный, отрезок заканчивается в rightBorder
+    private static long countSegments(double leftBorder, double rightBorder, double step) {
+        long segments = Math.max(1, (long) Math.ceil((rightBorder - leftBorder) / step));
+        while (segments > 1 && leftBorder + (segments - 1) * step >= rightBorder) {
+            segments--;
+        }
+        while (leftBorder + segments * step < rightBorder) {
+            segments++;
+        }
+        return segments;
+    }
 
-        // Вычисляем интеграл методом трапеций
-        while (currentX < rightBorder) {
-            double nextX = Math.min(currentX + step, rightBorder);
+    // Сумма y_k * w_k по узлам блока с номером block
+    private static double integrateBlock(Function f, double leftBorder, double rightBorder, double step,
+                                         long segments, int block) {
+        long first = (long) block * PARALLEL_BLOCK_SIZE;
+        int count = (int) Math.min(PARALLEL_BLOCK_SIZE, segments + 1 - first);
 
-            double y1 = f.getFunctionValue(currentX);
-            double y2 = f.getFunctionValue(nextX);
+        // Узлы блока и по одному соседнему узлу с каждой стороны для вычисления весов
+        double[] xs = new double[count + 2];
+        for (int i = 0; i < count + 2; i++) {
+            long k = first + i - 1;
+            xs[i] = k >= segments ? rightBorder : leftBorder + k * step;
+        }
+        double[] ys = new double[count + 2];
+        f.getFunctionValues(xs, ys, 1, count + 1);
 
-            // Если функция не определена в какой-то точке, выбрасываем исключение
-            if (Double.isNaN(y1) || Double.isNaN(y2)) {
+        double sum = 0.0;
+        for (int i = 1; i <= count; i++) {
+            if (Double.isNaN(ys[i])) {
                 throw new IllegalArgumentException("Функция не определена в точке на интервале интегрирования");
             }
+            long k = first + i - 1;
+            double leftWidth = k == 0 ? 0.0 : xs[i] - xs[i - 1];
+            double rightWidth = k == segments ? 0.0 : xs[i + 1] - xs[i];
+            sum += ys[i] * (leftWidth + rightWidth) / 2.0;
+        }
+        return sum;
+    }
 
-            // Площадь трапеции
-            double segmentArea = (y1 + y2) * (nextX - currentX) / 2.0;
-            integral += segmentArea;
+    private static void cancelAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
 
-            currentX = nextX;
+    // Адаптивное интегрирование квадратурой Гаусса-Кронрода G7-K15: отрезок с наибольшей оценкой ошибки
+    // делится пополам, пока суммарная оценка не станет не больше max(absoluteTolerance, relativeTolerance * |I|).
+    // Если точность не достигнута за MAX_ADAPTIVE_INTERVALS отрезков, возвращается текущая оценка с её ошибкой.
+    public static IntegrationResult integrateAdaptive(Function f, double leftBorder, double rightBorder,
+                                                      double absoluteTolerance, double relativeTolerance) {
+        checkIntegrationBorders(f, leftBorder, rightBorder);
+        if (!(absoluteTolerance >= 0) || !(relativeTolerance >= 0)
+                || (absoluteTolerance == 0 && relativeTolerance == 0)) {
+            throw new IllegalArgumentException("Допустимая погрешность должна быть неотрицательной и не равной нулю одновременно");
         }
 
-        return integral;
+        PriorityQueue<KronrodInterval> intervals = new PriorityQueue<>(
+                (i1, i2) -> Double.compare(i2.error, i1.error));
+        KronrodInterval whole = new KronrodInterval(f, leftBorder, rightBorder);
+        intervals.add(whole);
+        double value = whole.value;
+        double error = whole.error;
+        long evaluations = KRONROD_POINTS;
+
+        while (error > Math.max(absoluteTolerance, relativeTolerance * Math.abs(value))
+                && intervals.size() < MAX_ADAPTIVE_INTERVALS) {
+            KronrodInterval worst = intervals.poll();
+            double middle = (worst.left + worst.right) / 2.0;
+            if (middle <= worst.left || middle >= worst.right) {
+                // Отрезок больше не делится в арифметике double
+                intervals.add(worst);
+                break;
+            }
+
+            KronrodInterval leftHalf = new KronrodInterval(f, worst.left, middle);
+            KronrodInterval rightHalf = new KronrodInterval(f, middle, worst.right);
+            intervals.add(leftHalf);
+            intervals.add(rightHalf);
+            evaluations += 2 * KRONROD_POINTS;
+
+            value += leftHalf.value + rightHalf.value - worst.value;
+            error += leftHalf.error + rightHalf.error - worst.error;
+        }
+
+        // Итоговые суммы пересчитываются заново, чтобы не накапливать ошибку округления
+        value = 0.0;
+        error = 0.0;
+        for (KronrodInterval interval : intervals) {
+            value += interval.value;
+            error += interval.error;
+        }
+        return new IntegrationResult(value, error, evaluations);
+    }
+
+    // Отрезок адаптивного интегрирования с оценкой K15 и погрешностью |K15 - G7|
+    private static final class KronrodInterval {
+        private final double left;
+        private final double right;
+        private final double value;
+        private final double error;
+
+        KronrodInterval(Function f, double left, double right) {
+            this.left = left;
+            this.right = right;
+
+            double center = (left + right) / 2.0;
+            double halfLength = (right - left) / 2.0;
+
+            // Все 15 узлов вычисляются одним пакетным вызовом
+            double[] xs = new double[KRONROD_POINTS];
+            for (int i = 0; i < 7; i++) {
+                xs[2 * i] = center - halfLength * KRONROD_NODES[i];
+                xs[2 * i + 1] = center + halfLength * KRONROD_NODES[i];
+            }
+            xs[14] = center;
+            double[] ys = new double[KRONROD_POINTS];
+            f.getFunctionValues(xs, ys, 0, KRONROD_POINTS);
+
+            for (double y : ys) {
+                if (Double.isNaN(y)) {
+                    throw new IllegalArgumentException("Функция не определена в точке на интервале интегрирования");
+                }
+            }
+
+            double kronrod = KRONROD_WEIGHTS[7] * ys[14];
+            double gauss = GAUSS_WEIGHTS[3] * ys[14];
+            for (int i = 0; i < 7; i++) {
+                double pair = ys[2 * i] + ys[2 * i + 1];
+                kronrod += KRONROD_WEIGHTS[i] * pair;
+                if (i % 2 == 1) {
+                    gauss += GAUSS_WEIGHTS[i / 2] * pair;
+                }
+            }
+
+            this.value = kronrod * halfLength;
+            this.error = Math.abs((kronrod - gauss) * halfLength);
+        }
     }
 
-}
\ No newline at end of file
+    // Результат адаптивного интегрирования: значение, оценка погрешности и число вычислений функции
+    public static final class IntegrationResult {
+        private final double value;
+        private final double errorEstimate;
+        private final long evaluationCount;
+
+        public IntegrationResult(double value, double errorEstimate, long evaluationCount) {
+            this.value = value;
+            this.errorEstimate = errorEstimate;
+            this.evaluationCount = evaluationCount;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public double getErrorEstimate() {
+            return errorEstimate;
+        }
+
+        public long getEvaluationCount() {
+            return evaluationCount;
+        }
+
+        public String toString() {
+            return value + " ± " + errorEstimate + " (" + evaluationCount + " вычислений)";
+        }
+    }
+}
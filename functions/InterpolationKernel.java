@@ -0,0 +1,336 @@
+package functions;
+
+import java.util.Arrays;
+
+// Нелинейная интерполяция табулированной функции. Хранит копию узлов и предвычисленные коэффициенты
+// кубических многочленов на отрезках: y = y_i + s (d_i + s (c_i + s e_i)), s = x - x_i, d_i - производная в узле.
+// Производные монотонного сплайна зависят только от соседних узлов, поэтому изменение точки пересчитывает
+// их локально за O(1) (вставка и удаление ещё сдвигают массивы за O(n), как и у самих табулированных функций).
+// Естественный сплайн - решение трёхдиагональной системы по всем узлам: после изменений он пересчитывается
+// целиком за O(n) при первом обращении, так что серия изменений точек стоит одного пересчёта
+final class InterpolationKernel {
+    private static final double EPSILON = 1e-10;
+
+    private final InterpolationMethod method;
+    private double[] xs;
+    private double[] ys;
+    private double[] slopes;    // d_i для узлов
+    private double[] quadratic; // c_i для отрезков
+    private double[] cubic;     // e_i для отрезков
+    private int count;
+    private volatile boolean stale; // Коэффициенты естественного сплайна устарели
+
+    InterpolationKernel(double[] xs, double[] ys, int count, InterpolationMethod method) {
+        this.method = method;
+        this.xs = Arrays.copyOf(xs, count);
+        this.ys = Arrays.copyOf(ys, count);
+        this.count = count;
+        init();
+    }
+
+    InterpolationKernel(TabulatedFunction function, InterpolationMethod method) {
+        this.method = method;
+        this.count = function.getPointsCount();
+        this.xs = new double[count];
+        this.ys = new double[count];
+        int i = 0;
+        for (FunctionPoint point : function) {
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+            i++;
+        }
+        init();
+    }
+
+    private void init() {
+        if (method == InterpolationMethod.NEAREST) {
+            return;
+        }
+        slopes = new double[count];
+        quadratic = new double[count - 1];
+        cubic = new double[count - 1];
+        if (method == InterpolationMethod.MONOTONE_CUBIC) {
+            update(0, count - 1);
+        } else {
+            stale = true;
+        }
+    }
+
+    InterpolationMethod getMethod() {
+        return method;
+    }
+
+    void pointChanged(int index, double x, double y) {
+        xs[index] = x;
+        ys[index] = y;
+        update(index - 2, index + 2);
+    }
+
+    void pointInserted(int index, double x, double y) {
+        xs = inserted(xs, index, count, x);
+        ys = inserted(ys, index, count, y);
+        if (slopes != null) {
+            // Новая точка делит отрезок index - 1; при добавлении в конец появляется последний отрезок
+            int segment = Math.min(index, count - 1);
+            slopes = inserted(slopes, index, count, 0.0);
+            quadratic = inserted(quadratic, segment, count - 1, 0.0);
+            cubic = inserted(cubic, segment, count - 1, 0.0);
+        }
+        count++;
+        update(index - 2, index + 2);
+    }
+
+    void pointDeleted(int index) {
+        removed(xs, index, count);
+        removed(ys, index, count);
+        if (slopes != null) {
+            // Отрезки index - 1 и index сливаются; у крайних точек исчезает крайний отрезок
+            int segment = Math.min(index, count - 2);
+            removed(slopes, index, count);
+            removed(quadratic, segment, count - 1);
+            removed(cubic, segment, count - 1);
+        }
+        count--;
+        update(index - 2, index + 1);
+    }
+
+    private static double[] inserted(double[] array, int index, int length, double value) {
+        double[] result = new double[length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, length - index);
+        return result;
+    }
+
+    private static void removed(double[] array, int index, int length) {
+        System.arraycopy(array, index + 1, array, index, length - index - 1);
+    }
+
+    // Пересчёт после изменения узлов from..to: производная монотонного сплайна в узле k зависит
+    // от узлов k - 1..k + 1 (крайняя - от трёх крайних узлов), отрезок - от производных в своих концах
+    private void update(int from, int to) {
+        if (method == InterpolationMethod.NEAREST) {
+            return;
+        }
+        if (method == InterpolationMethod.NATURAL_SPLINE) {
+            stale = true;
+            return;
+        }
+        from = Math.max(from, 0);
+        to = Math.min(to, count - 1);
+        for (int k = from; k <= to; k++) {
+            slopes[k] = monotoneSlope(k);
+        }
+        for (int i = Math.max(from - 1, 0); i <= Math.min(to, count - 2); i++) {
+            updateSegment(i);
+        }
+    }
+
+    private double delta(int segment) {
+        return (ys[segment + 1] - ys[segment]) / (xs[segment + 1] - xs[segment]);
+    }
+
+    private double length(int segment) {
+        return xs[segment + 1] - xs[segment];
+    }
+
+    // Производная по Фричу-Карлсону в форме Фрича-Батленда: взвешенное гармоническое среднее наклонов
+    // соседних отрезков и ноль в локальных экстремумах данных
+    private double monotoneSlope(int k) {
+        int last = count - 1;
+        if (count == 2) {
+            return delta(0);
+        }
+        if (k == 0) {
+            return endSlope(length(0), length(1), delta(0), delta(1));
+        }
+        if (k == last) {
+            return endSlope(length(last - 1), length(last - 2), delta(last - 1), delta(last - 2));
+        }
+
+        double d0 = delta(k - 1);
+        double d1 = delta(k);
+        if (Math.signum(d0) * Math.signum(d1) <= 0) {
+            return 0.0;
+        }
+        double h0 = length(k - 1);
+        double h1 = length(k);
+        double w1 = 2 * h1 + h0;
+        double w2 = h1 + 2 * h0;
+        return (w1 + w2) / (w1 / d0 + w2 / d1);
+    }
+
+    // Производная на конце по трёхточечной формуле, ограниченная так, чтобы не нарушать монотонность
+    private static double endSlope(double h0, double h1, double d0, double d1) {
+        double d = ((2 * h0 + h1) * d0 - h0 * d1) / (h0 + h1);
+        if (Math.signum(d) != Math.signum(d0)) {
+            return 0.0;
+        }
+        if (Math.signum(d0) != Math.signum(d1) && Math.abs(d) > Math.abs(3 * d0)) {
+            return 3 * d0;
+        }
+        return d;
+    }
+
+    // Коэффициенты кубического многочлена Эрмита на отрезке по значениям и производным в его концах
+    private void updateSegment(int i) {
+        double h = length(i);
+        double d = delta(i);
+        quadratic[i] = (3 * d - 2 * slopes[i] - slopes[i + 1]) / h;
+        cubic[i] = (slopes[i] + slopes[i + 1] - 2 * d) / (h * h);
+    }
+
+    private void refresh() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    solveNaturalSpline();
+                    stale = false;
+                }
+            }
+        }
+    }
+
+    // Естественный сплайн относительно производных в узлах, метод прогонки:
+    // 2 d_0 + d_1 = 3 D_0;
+    // h_i d_i-1 + 2 (h_i-1 + h_i) d_i + h_i-1 d_i+1 = 3 (h_i D_i-1 + h_i-1 D_i);
+    // d_n-2 + 2 d_n-1 = 3 D_n-2, где h_i - длины отрезков, D_i - их наклоны
+    private void solveNaturalSpline() {
+        int n = count;
+        double[] upper = new double[n];
+        double[] right = new double[n];
+
+        double diagonal = 2.0;
+        upper[0] = 1.0 / diagonal;
+        right[0] = 3 * delta(0) / diagonal;
+        for (int i = 1; i < n; i++) {
+            double lower;
+            double rhs;
+            if (i == n - 1) {
+                lower = 1.0;
+                diagonal = 2.0;
+                rhs = 3 * delta(n - 2);
+            } else {
+                double h0 = length(i - 1);
+                double h1 = length(i);
+                lower = h1;
+                diagonal = 2 * (h0 + h1);
+                upper[i] = h0;
+                rhs = 3 * (h1 * delta(i - 1) + h0 * delta(i));
+            }
+            double pivot = diagonal - lower * upper[i - 1];
+            upper[i] /= pivot;
+            right[i] = (rhs - lower * right[i - 1]) / pivot;
+        }
+
+        slopes[n - 1] = right[n - 1];
+        for (int i = n - 2; i >= 0; i--) {
+            slopes[i] = right[i] - upper[i] * slopes[i + 1];
+        }
+        for (int i = 0; i < n - 1; i++) {
+            updateSegment(i);
+        }
+    }
+
+    // Значение в точке x из области определения с допуском EPSILON за границами
+    double value(double x) {
+        refresh();
+        return valueInSegment(findSegment(x), x);
+    }
+
+    // Пакетное вычисление: для возрастающих аргументов отрезок ищется слиянием за O(n + m)
+    void values(double[] args, double[] out, int from, int to) {
+        refresh();
+        double left = xs[0] - EPSILON;
+        double right = xs[count - 1] + EPSILON;
+        int last = count - 2;
+        int segment = 0;
+        double previous = Double.NaN;
+
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (!(x >= left && x <= right)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+            if (x >= previous) {
+                while (segment < last && xs[segment + 1] <= x) {
+                    segment++;
+                }
+            } else {
+                segment = findSegment(x);
+            }
+            previous = x;
+            out[k] = valueInSegment(segment, x);
+        }
+    }
+
+    // Номер последнего отрезка с x_i <= x (крайние отрезки принимают и точки за границами).
+    // Интерполяционная догадка на равномерной сетке сразу попадает в нужный отрезок
+    private int findSegment(double x) {
+        int last = count - 2;
+        int guess = (int) ((x - xs[0]) / (xs[count - 1] - xs[0]) * (last + 1));
+        guess = Math.max(0, Math.min(last, guess));
+        if ((guess == 0 || xs[guess] <= x) && (guess == last || x < xs[guess + 1])) {
+            return guess;
+        }
+
+        int lo = 0;
+        int hi = last;
+        if (x < xs[guess]) {
+            hi = guess - 1;
+        } else {
+            lo = guess + 1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private double valueInSegment(int i, double x) {
+        if (Math.abs(x - xs[i]) < EPSILON) {
+            return ys[i];
+        }
+        if (Math.abs(x - xs[i + 1]) < EPSILON) {
+            return ys[i + 1];
+        }
+
+        double s = x - xs[i];
+        if (method == InterpolationMethod.NEAREST) {
+            return s < xs[i + 1] - x ? ys[i] : ys[i + 1];
+        }
+        return ys[i] + s * (slopes[i] + s * (quadratic[i] + s * cubic[i]));
+    }
+
+    // Точный интеграл интерполянта по [leftX; rightX] внутри области определения
+    double integrate(double leftX, double rightX) {
+        refresh();
+        int first = findSegment(leftX);
+        int last = findSegment(rightX);
+
+        double integral = 0.0;
+        for (int i = first; i <= last; i++) {
+            double a = Math.max(leftX, xs[i]) - xs[i];
+            double b = Math.min(rightX, xs[i + 1]) - xs[i];
+            if (b > a) {
+                integral += primitive(i, b) - primitive(i, a);
+            }
+        }
+        return integral;
+    }
+
+    // Интеграл многочлена отрезка i от x_i до x_i + s
+    private double primitive(int i, double s) {
+        if (method == InterpolationMethod.NEAREST) {
+            double half = length(i) / 2.0;
+            return s < half ? ys[i] * s : ys[i] * half + ys[i + 1] * (s - half);
+        }
+        return s * (ys[i] + s * (slopes[i] / 2.0 + s * (quadratic[i] / 3.0 + s * cubic[i] / 4.0)));
+    }
+}
@@ -0,0 +1,13 @@
+package functions;
+
+// Способ вычисления значений табулированной функции между узлами
+public enum InterpolationMethod {
+    // Кусочно-линейная интерполяция (по умолчанию)
+    LINEAR,
+    // Значение ближайшего узла; в середине отрезка - правого
+    NEAREST,
+    // Естественный кубический сплайн: непрерывна вторая производная, на концах она равна нулю
+    NATURAL_SPLINE,
+    // Монотонный кубический сплайн Фрича-Карлсона: не даёт выбросов между узлами и сохраняет монотонность данных
+    MONOTONE_CUBIC
+}
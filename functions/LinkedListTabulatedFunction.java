@@ -1,13 +1,23 @@
 package functions;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OptionalDataException;
 import java.io.Serializable;
 import java.util.NoSuchElementException;
 import java.util.Iterator;
 
 public class LinkedListTabulatedFunction implements TabulatedFunction, Serializable {
+    // Значение, вычисленное по исходной версии класса: ранее записанные объекты остаются читаемыми
+    private static final long serialVersionUID = -1131633119924901602L;
     private FunctionNode head;
     private int pointcount;
     private static final double EPSILON = 1e-10;
+    // Необязательный индекс площадей отрезков для интегралов по интервалам за O(log n)
+    private transient SegmentAreaIndex integralIndex;
+    // Нелинейная интерполяция с копией узлов и предвычисленными коэффициентами; null - линейная
+    private transient InterpolationKernel interpolation;
 
     private static class FunctionNode implements Serializable {
         private FunctionPoint point;
@@ -203,6 +213,9 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         if (x < leftBorder - EPSILON || x > rightBorder + EPSILON) { // Используем EPSILON
             return Double.NaN;
         }
+        if (interpolation != null) {
+            return interpolation.value(x); // Двоичный поиск по копии узлов вместо обхода списка
+        }
 
         // Ищем точку с точно таким же x
         FunctionNode current = head.getNext();
@@ -230,6 +243,114 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         return Double.NaN;
     }
 
+    // Пакетное вычисление: для возрастающих аргументов список проходится один раз, O(n + m)
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        if (pointcount < 2) {
+            for (int k = from; k < to; k++) {
+                out[k] = getFunctionValue(xs[k]);
+            }
+            return;
+        }
+        if (interpolation != null) {
+            interpolation.values(xs, out, from, to);
+            return;
+        }
+
+        double leftBorder = getLeftDomainBorder();
+        double rightBorder = getRightDomainBorder();
+        FunctionNode first = head.getNext();
+        FunctionNode last = head.getPrev().getPrev(); // Начало последнего отрезка
+        FunctionNode current = first;
+        double previous = Double.NaN;
+
+        for (int k = from; k < to; k++) {
+            double x = xs[k];
+            if (!(x >= leftBorder - EPSILON && x <= rightBorder + EPSILON)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            // При убывании аргумента обход начинается заново
+            if (!(x >= previous)) {
+                current = first;
+            }
+            while (current != last && current.getNext().getPoint().getX() <= x) {
+                current = current.getNext();
+            }
+            previous = x;
+
+            FunctionPoint p1 = current.getPoint();
+            FunctionPoint p2 = current.getNext().getPoint();
+            if (Math.abs(p1.getX() - x) < EPSILON) {
+                out[k] = p1.getY();
+            } else if (Math.abs(p2.getX() - x) < EPSILON) {
+                out[k] = p2.getY();
+            } else {
+                out[k] = p1.getY() + (p2.getY() - p1.getY()) * (x - p1.getX()) / (p2.getX() - p1.getX());
+            }
+        }
+    }
+
+    // Включение индекса площадей: TabulatedFunctions.integrate отвечает за O(log n) без обхода списка,
+    // а изменение одной точки обновляет индекс за O(log n)
+    public void setIntegralIndexEnabled(boolean enabled) {
+        if (!enabled) {
+            integralIndex = null;
+        } else if (integralIndex == null) {
+            integralIndex = new SegmentAreaIndex(this);
+        }
+    }
+
+    public boolean isIntegralIndexEnabled() {
+        return integralIndex != null;
+    }
+
+    SegmentAreaIndex getIntegralIndex() {
+        return integralIndex;
+    }
+
+    // Выбор способа интерполяции между узлами; коэффициенты сплайнов вычисляются сразу
+    // и обновляются при изменении точек
+    public void setInterpolationMethod(InterpolationMethod method) {
+        if (method == null) {
+            throw new IllegalArgumentException("Способ интерполяции не может быть null");
+        }
+        if (method == InterpolationMethod.LINEAR) {
+            interpolation = null;
+        } else if (interpolation == null || interpolation.getMethod() != method) {
+            interpolation = new InterpolationKernel(this, method);
+        }
+    }
+
+    public InterpolationMethod getInterpolationMethod() {
+        return interpolation == null ? InterpolationMethod.LINEAR : interpolation.getMethod();
+    }
+
+    InterpolationKernel getInterpolationKernel() {
+        return interpolation;
+    }
+
+    // Способ интерполяции сохраняется после точек; коэффициенты восстанавливаются при чтении
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getInterpolationMethod());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // Потоки, записанные до появления способов интерполяции, заканчиваются на полях объекта
+        InterpolationMethod method;
+        try {
+            method = (InterpolationMethod) in.readObject();
+        } catch (OptionalDataException e) {
+            if (!e.eof) {
+                throw e;
+            }
+            method = InterpolationMethod.LINEAR;
+        }
+        setInterpolationMethod(method);
+    }
+
     public int getPointsCount() {
         return pointcount; // Возвращаем количество точек
     }
@@ -257,6 +378,12 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         }
 
         getNodeByIndex(index).setPoint(new FunctionPoint(point));
+        if (integralIndex != null) {
+            integralIndex.pointChanged(index, point.getX(), point.getY());
+        }
+        if (interpolation != null) {
+            interpolation.pointChanged(index, point.getX(), point.getY());
+        }
     }
 
     public double getPointX(int index) {
@@ -286,6 +413,12 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         FunctionPoint currentPoint = getNodeByIndex(index).getPoint();
         FunctionPoint newPoint = new FunctionPoint(currentPoint.getX(), y);
         getNodeByIndex(index).setPoint(newPoint);
+        if (integralIndex != null) {
+            integralIndex.pointChanged(index, newPoint.getX(), y);
+        }
+        if (interpolation != null) {
+            interpolation.pointChanged(index, newPoint.getX(), y);
+        }
     }
 
     public void deletePoint(int index) {
@@ -296,6 +429,12 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
             throw new IllegalStateException("Невозможно удалить точку");
         }
         deleteNodeByIndex(index);
+        if (integralIndex != null) {
+            integralIndex.pointDeleted(index);
+        }
+        if (interpolation != null) {
+            interpolation.pointDeleted(index);
+        }
     }
 
     public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
@@ -312,6 +451,12 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
         }
 
         addNodeByIndex(insertIndex, new FunctionPoint(point));
+        if (integralIndex != null) {
+            integralIndex.pointInserted(insertIndex, point.getX(), point.getY());
+        }
+        if (interpolation != null) {
+            interpolation.pointInserted(insertIndex, point.getX(), point.getY());
+        }
     }
 
     public String toString() {
@@ -441,6 +586,12 @@ public class LinkedListTabulatedFunction implements TabulatedFunction, Serializa
             }
 
             cloned.pointcount = this.pointcount;
+            if (integralIndex != null) {
+                cloned.integralIndex = new SegmentAreaIndex(cloned);
+            }
+            if (interpolation != null) {
+                cloned.interpolation = new InterpolationKernel(cloned, interpolation.getMethod());
+            }
             return cloned;
 
         } catch (Exception e) {
@@ -0,0 +1,535 @@
+package functions;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+// Табулированная функция, точки которой лежат в файле формата outputTabulatedFunction: int count, (double x, double y)*.
+// Файл отображается в память, страницы подгружаются операционной системой по мере обращения.
+// Размер таблицы фиксирован: addPoint и deletePoint не поддерживаются.
+// close() снимает отображение, а временный файл, созданный самим объектом (конструкторы по точкам и фабрика),
+// ещё и удаляет. Если объект не закрыт, временный файл удаляется после того, как объект соберёт сборщик мусора.
+// Закрывать таблицу можно только после того, как её перестали использовать все потоки
+public class MappedTabulatedFunction implements TabulatedFunction, Closeable {
+    private static final double EPSILON = 1e-10;
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_SIZE = 16;
+    // Одно отображение покрывает 2^26 записей (1 ГБ), т.к. MappedByteBuffer ограничен 2 ГБ
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final Cleaner TEMPORARY_FILES = Cleaner.create();
+    // sun.misc.Unsafe.invokeCleaner: немедленное снятие отображения; без него память отображения
+    // освобождается сборщиком мусора
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final File file;
+    private final boolean writable;
+    private final int pointsCount;
+    private MappedByteBuffer[] chunks; // null после close()
+    private final Cleaner.Cleanable temporaryFile; // null, если файл не создан этим объектом
+    private final ThreadLocal<int[]> segmentHint = ThreadLocal.withInitial(() -> new int[1]);
+
+    // Открытие существующего файла только для чтения
+    public MappedTabulatedFunction(File file) throws IOException {
+        this(file, false);
+    }
+
+    // Открытие существующего файла; при writable изменения точек записываются прямо в файл.
+    // Упорядоченность точек не проверяется, чтобы не читать весь файл при открытии.
+    public MappedTabulatedFunction(File file, boolean writable) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Файл не может быть null");
+        }
+        this.file = file;
+        this.writable = writable;
+        this.temporaryFile = null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Файл не содержит количества точек");
+            }
+            int count = raf.readInt();
+            if (count < 2) {
+                throw new IOException("Недостаточное количество точек");
+            }
+            if (channel.size() < HEADER_SIZE + (long) count * RECORD_SIZE) {
+                throw new IOException("Файл короче, чем требует количество точек: " + count);
+            }
+            this.pointsCount = count;
+
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            int chunkCount = ((count - 1) >>> CHUNK_SHIFT) + 1;
+            this.chunks = new MappedByteBuffer[chunkCount];
+            for (int k = 0; k < chunkCount; k++) {
+                long first = (long) k << CHUNK_SHIFT;
+                long records = Math.min(count - first, 1L << CHUNK_SHIFT);
+                chunks[k] = channel.map(mode, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+        }
+    }
+
+    public MappedTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(openCreated(createTableFile(null, leftX, rightX, checkPointsCount(pointsCount))));
+    }
+
+    public MappedTabulatedFunction(double leftX, double rightX, double[] values) {
+        this(openCreated(createTableFile(null, leftX, rightX, values)));
+    }
+
+    public MappedTabulatedFunction(FunctionPoint[] points) {
+        this(openCreated(createTableFile(null, points)));
+    }
+
+    // Перенос отображения из только что открытого временного файла; файл принадлежит новому объекту.
+    // Удаление регистрируется здесь, а не в opened: тот сразу становится мусором
+    private MappedTabulatedFunction(MappedTabulatedFunction opened) {
+        this.file = opened.file;
+        this.writable = opened.writable;
+        this.pointsCount = opened.pointsCount;
+        this.chunks = opened.chunks;
+        this.temporaryFile = TEMPORARY_FILES.register(this, new FileRemover(file));
+    }
+
+    private static MappedTabulatedFunction openCreated(File createdFile) {
+        try {
+            return new MappedTabulatedFunction(createdFile, true);
+        } catch (IOException e) {
+            createdFile.delete();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Действие очистки не должно ссылаться на сам объект, иначе он никогда не станет мусором
+    private static final class FileRemover implements Runnable {
+        private final File file;
+
+        FileRemover(File file) {
+            this.file = file;
+        }
+
+        public void run() {
+            file.delete();
+        }
+    }
+
+    private static double[] checkPointsCount(int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        return new double[pointsCount];
+    }
+
+    // Запись равномерной таблицы во временный файл в каталоге directory (null - системный каталог)
+    private static File createTableFile(File directory, double leftX, double rightX, double[] values) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        double step = (rightX - leftX) / (values.length - 1);
+        double[] xs = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            xs[i] = leftX + i * step;
+        }
+        return writeTableFile(directory, xs, values);
+    }
+
+    private static File createTableFile(File directory, FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        // Проверка упорядоченности по X
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() <= points[i - 1].getX() + EPSILON) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по возрастанию X");
+            }
+        }
+
+        double[] xs = new double[points.length];
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+        }
+        return writeTableFile(directory, xs, ys);
+    }
+
+    private static File writeTableFile(File directory, double[] xs, double[] ys) {
+        try {
+            File created = File.createTempFile("tabulated", ".bin", directory);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(created), 1 << 16))) {
+                out.writeInt(xs.length);
+                for (int i = 0; i < xs.length; i++) {
+                    out.writeDouble(xs[i]);
+                    out.writeDouble(ys[i]);
+                }
+            } catch (IOException e) {
+                created.delete();
+                throw e;
+            }
+            return created;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать файл табулированной функции", e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    // Снятие отображения и удаление собственного временного файла; повторный вызов ничего не делает.
+    // Чужой файл, открытый конструктором по File, не удаляется. После закрытия обращения к точкам
+    // выбрасывают IllegalStateException
+    public void close() {
+        MappedByteBuffer[] mapped = chunks;
+        if (mapped == null) {
+            return;
+        }
+        chunks = null;
+        if (INVOKE_CLEANER != null) {
+            for (MappedByteBuffer chunk : mapped) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, chunk);
+                } catch (ReflectiveOperationException e) {
+                    // Отображение освободит сборщик мусора
+                }
+            }
+        }
+        if (temporaryFile != null) {
+            temporaryFile.clean();
+        }
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        MappedByteBuffer[] mapped = chunks;
+        if (mapped == null) {
+            throw new IllegalStateException("Таблица закрыта");
+        }
+        return mapped[index >>> CHUNK_SHIFT];
+    }
+
+    private double x(int index) {
+        return chunk(index).getDouble((index & CHUNK_MASK) * RECORD_SIZE);
+    }
+
+    private double y(int index) {
+        return chunk(index).getDouble((index & CHUNK_MASK) * RECORD_SIZE + 8);
+    }
+
+    private void writeX(int index, double x) {
+        checkWritable();
+        chunk(index).putDouble((index & CHUNK_MASK) * RECORD_SIZE, x);
+    }
+
+    private void writeY(int index, double y) {
+        checkWritable();
+        chunk(index).putDouble((index & CHUNK_MASK) * RECORD_SIZE + 8, y);
+    }
+
+    private void checkWritable() {
+        if (!writable) {
+            throw new UnsupportedOperationException("Таблица открыта только для чтения");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return x(0);
+    }
+
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            return Double.NaN;
+        }
+
+        return valueInSegment(findSegment(x), x);
+    }
+
+    // Пакетное вычисление: для возрастающих аргументов страницы файла читаются последовательно
+    public void getFunctionValues(double[] args, double[] out, int from, int to) {
+        double left = getLeftDomainBorder() - EPSILON;
+        double right = getRightDomainBorder() + EPSILON;
+        int last = pointsCount - 2;
+        int segment = 0;
+        double previous = Double.NaN;
+
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            if (!(x >= left && x <= right)) {
+                out[k] = Double.NaN;
+                continue;
+            }
+
+            if (x >= previous) {
+                int steps = 0;
+                while (segment < last && x(segment + 1) <= x && steps < 8) {
+                    segment++;
+                    steps++;
+                }
+                if (!isInSegment(segment, x)) {
+                    segment = findSegment(x);
+                }
+            } else {
+                segment = findSegment(x);
+            }
+
+            previous = x;
+            out[k] = valueInSegment(segment, x);
+        }
+    }
+
+    private double valueInSegment(int i, double x) {
+        double x1 = x(i);
+        double x2 = x(i + 1);
+
+        if (Math.abs(x1 - x) < EPSILON) {
+            return y(i);
+        }
+        if (Math.abs(x2 - x) < EPSILON) {
+            return y(i + 1);
+        }
+
+        double y1 = y(i);
+        double y2 = y(i + 1);
+
+        return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    }
+
+    // Индекс отрезка [x_i; x_i+1], содержащего x: подсказка потока, затем двоичный поиск (затрагивает O(log n) страниц)
+    private int findSegment(double x) {
+        int last = pointsCount - 2;
+        int[] hint = segmentHint.get();
+
+        int i = hint[0];
+        if (i <= last && isInSegment(i, x)) {
+            return i;
+        }
+        if (i + 1 <= last && isInSegment(i + 1, x)) {
+            hint[0] = i + 1;
+            return i + 1;
+        }
+
+        int lo = 0;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (x(mid) <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        hint[0] = lo;
+        return lo;
+    }
+
+    private boolean isInSegment(int i, double x) {
+        return (i == 0 || x(i) <= x) && (i == pointsCount - 2 || x < x(i + 1));
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), y(index));
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        setPointX(index, point.getX());
+        writeY(index, point.getY());
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index);
+
+        if (index > 0 && x <= x(index - 1) + EPSILON) {
+            throw new InappropriateFunctionPointException("X точки должен быть больше предыдущей точки");
+        }
+        if (index < pointsCount - 1 && x >= x(index + 1) - EPSILON) {
+            throw new InappropriateFunctionPointException("X точки должен быть меньше следующей точки");
+        }
+
+        writeX(index, x);
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setPointY(int index, double y) {
+        checkIndex(index);
+        writeY(index, y);
+    }
+
+    public void deletePoint(int index) {
+        throw new UnsupportedOperationException("Количество точек отображённой в память таблицы фиксировано");
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        throw new UnsupportedOperationException("Количество точек отображённой в память таблицы фиксировано");
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(new FunctionPoint(x(i), y(i)).toString());
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction otherFunc = (TabulatedFunction) o;
+
+        if (this.pointsCount != otherFunc.getPointsCount()) {
+            return false;
+        }
+
+        // Сравнение с той же погрешностью, что и в FunctionPoint.equals
+        for (int i = 0; i < pointsCount; i++) {
+            FunctionPoint otherPoint = otherFunc.getPoint(i);
+            if (Math.abs(x(i) - otherPoint.getX()) >= EPSILON || Math.abs(y(i) - otherPoint.getY()) >= EPSILON) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int hashCode() {
+        int hash = pointsCount;
+
+        for (int i = 0; i < pointsCount; i++) {
+            hash ^= FunctionPoint.hashCode(x(i), y(i));
+        }
+
+        return hash;
+    }
+
+    // Копия читается в память (ArrayTabulatedFunction): она не создаёт файлов и не требует закрытия
+    public TabulatedFunction clone() {
+        double[] xs = new double[pointsCount];
+        double[] ys = new double[pointsCount];
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = x(i);
+            ys[i] = y(i);
+        }
+        return new ArrayTabulatedFunction(xs, ys);
+    }
+
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("No more elements");
+                }
+                FunctionPoint point = new FunctionPoint(x(currentIndex), y(currentIndex));
+                currentIndex++;
+                return point;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException("Remove operation is not supported");
+            }
+        };
+    }
+
+    // Фабрика создаёт таблицы во временных файлах каталога directory (null - системный временный каталог)
+    public static class MappedTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        private final File directory;
+
+        public MappedTabulatedFunctionFactory() {
+            this(null);
+        }
+
+        public MappedTabulatedFunctionFactory(File directory) {
+            this.directory = directory;
+        }
+
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new MappedTabulatedFunction(openCreated(createTableFile(directory, leftX, rightX, checkPointsCount(pointsCount))));
+        }
+
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new MappedTabulatedFunction(openCreated(createTableFile(directory, leftX, rightX, values)));
+        }
+
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new MappedTabulatedFunction(openCreated(createTableFile(directory, points)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package functions;
+
+import java.util.Arrays;
+
+// Индекс площадей отрезков кусочно-линейной функции на дереве Фенвика.
+// Интеграл по произвольному интервалу - O(log n); изменение одной точки - O(log n);
+// вставка и удаление точки сдвигают номера отрезков и перестраивают индекс за O(n),
+// что не хуже сдвига массива или поиска позиции в списке у самих табулированных функций.
+final class SegmentAreaIndex {
+    private double[] xs;
+    private double[] ys;
+    private double[] areas; // Площадь каждого отрезка, из неё берётся старое значение при обновлении
+    private double[] tree;  // Дерево Фенвика по площадям, индексация с 1
+    private int count;
+
+    SegmentAreaIndex(double[] xs, double[] ys, int count) {
+        this.xs = Arrays.copyOf(xs, count);
+        this.ys = Arrays.copyOf(ys, count);
+        this.count = count;
+        rebuild();
+    }
+
+    SegmentAreaIndex(TabulatedFunction function) {
+        this.count = function.getPointsCount();
+        this.xs = new double[count];
+        this.ys = new double[count];
+        int i = 0;
+        for (FunctionPoint point : function) {
+            xs[i] = point.getX();
+            ys[i] = point.getY();
+            i++;
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        int segments = Math.max(count - 1, 0);
+        areas = new double[segments];
+        tree = new double[segments + 1];
+        for (int i = 0; i < segments; i++) {
+            areas[i] = area(i);
+            tree[i + 1] = areas[i];
+        }
+        for (int i = 1; i <= segments; i++) {
+            int parent = i + (i & -i);
+            if (parent <= segments) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private double area(int segment) {
+        return (ys[segment] + ys[segment + 1]) * (xs[segment + 1] - xs[segment]) / 2.0;
+    }
+
+    private void updateSegment(int segment) {
+        if (segment < 0 || segment >= count - 1) {
+            return;
+        }
+        double newArea = area(segment);
+        double delta = newArea - areas[segment];
+        areas[segment] = newArea;
+        for (int i = segment + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Сумма площадей отрезков с номерами [0; segments)
+    private double prefix(int segments) {
+        double sum = 0.0;
+        for (int i = segments; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    void pointChanged(int index, double x, double y) {
+        xs[index] = x;
+        ys[index] = y;
+        updateSegment(index - 1);
+        updateSegment(index);
+    }
+
+    void pointInserted(int index, double x, double y) {
+        double[] newXs = new double[count + 1];
+        double[] newYs = new double[count + 1];
+        System.arraycopy(xs, 0, newXs, 0, index);
+        System.arraycopy(ys, 0, newYs, 0, index);
+        newXs[index] = x;
+        newYs[index] = y;
+        System.arraycopy(xs, index, newXs, index + 1, count - index);
+        System.arraycopy(ys, index, newYs, index + 1, count - index);
+        xs = newXs;
+        ys = newYs;
+        count++;
+        rebuild();
+    }
+
+    void pointDeleted(int index) {
+        System.arraycopy(xs, index + 1, xs, index, count - index - 1);
+        System.arraycopy(ys, index + 1, ys, index, count - index - 1);
+        count--;
+        rebuild();
+    }
+
+    // Интеграл по [leftX; rightX] внутри области определения
+    double integrate(double leftX, double rightX) {
+        int first = findSegment(leftX);
+        int last = findSegment(rightX);
+
+        if (first == last) {
+            return clippedArea(first, leftX, rightX);
+        }
+        return clippedArea(first, leftX, xs[first + 1])
+                + (prefix(last) - prefix(first + 1))
+                + clippedArea(last, xs[last], rightX);
+    }
+
+    private int findSegment(double x) {
+        int lo = 0;
+        int hi = count - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private double clippedArea(int segment, double a, double b) {
+        if (b <= a) {
+            return 0.0;
+        }
+        if (a == xs[segment] && b == xs[segment + 1]) {
+            return areas[segment];
+        }
+        double slope = (ys[segment + 1] - ys[segment]) / (xs[segment + 1] - xs[segment]);
+        double ya = ys[segment] + slope * (a - xs[segment]);
+        double yb = ys[segment] + slope * (b - xs[segment]);
+        return (ya + yb) * (b - a) / 2.0;
+    }
+}
@@ -3,9 +3,25 @@ package functions;
 import java.io.*;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TabulatedFunctions {
     private static TabulatedFunctionFactory factory = new ArrayTabulatedFunction.ArrayTabulatedFunctionFactory();
+    // Число равных отрезков, с которых начинается адаптивное табулирование
+    private static final int ADAPTIVE_INITIAL_SEGMENTS = 16;
+    // Предельное число точек адаптивного табулирования
+    private static final int MAX_ADAPTIVE_POINTS = 1 << 20;
+    // Отрезки короче этого не делятся: точки табулированных функций должны отличаться больше чем на 1e-10
+    private static final double MIN_ADAPTIVE_STEP = 1e-9;
+    // Число точек в блоке параллельного табулирования: один пакетный вызов и одна проверка NaN
+    private static final int PARALLEL_BLOCK_SIZE = 4096;
 
     private TabulatedFunctions() {
         throw new AssertionError("Нельзя создавать экземпляры класса TabulatedFunctions");
@@ -101,12 +117,155 @@ public final class TabulatedFunctions {
     // Метод tabulate с фабрикой
     public static TabulatedFunction tabulate(Function function, double leftX, double rightX,
                                              int pointsCount, TabulatedFunctionFactory customFactory) {
-        if (function == null) {
-            throw new IllegalArgumentException("Функция не может быть null");
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount);
+        return customFactory.createTabulatedFunction(leftX, rightX, values);
+    }
+
+    // ========== НОВЫЙ МЕТОД: tabulate с рефлексией ==========
+    public static TabulatedFunction tabulate(Function function, double leftX, double rightX,
+                                             int pointsCount, Class<? extends TabulatedFunction> functionClass) {
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount);
+
+        // Используем рефлексивный метод создания
+        return createTabulatedFunction(functionClass, leftX, rightX, values);
+    }
+
+    // ========== Параллельное табулирование ==========
+
+    // Параллельное табулирование на общем пуле ForkJoinPool с текущей фабрикой
+    public static TabulatedFunction tabulateParallel(Function function, double leftX, double rightX, int pointsCount) {
+        return tabulate(function, leftX, rightX, pointsCount, ForkJoinPool.commonPool());
+    }
+
+    public static TabulatedFunction tabulate(Function function, double leftX, double rightX,
+                                             int pointsCount, ExecutorService executor) {
+        return tabulate(function, leftX, rightX, pointsCount, factory, executor);
+    }
+
+    public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount,
+                                             TabulatedFunctionFactory customFactory, ExecutorService executor) {
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount, executor);
+        return customFactory.createTabulatedFunction(leftX, rightX, values);
+    }
+
+    public static TabulatedFunction tabulate(Function function, double leftX, double rightX, int pointsCount,
+                                             Class<? extends TabulatedFunction> functionClass,
+                                             ExecutorService executor) {
+        double[] values = tabulateValues(function, leftX, rightX, pointsCount, executor);
+        return createTabulatedFunction(functionClass, leftX, rightX, values);
+    }
+
+    // Значения в тех же точках x_i = leftX + i * step, что и у последовательного табулирования, поэтому
+    // результат совпадает с ним. Блоки по PARALLEL_BLOCK_SIZE точек распределяются по задачам непрерывными
+    // диапазонами. Найденный NaN останавливает блоки правее него: задачи пропускают их, а ещё не
+    // начатые отменяются; блоки левее досчитываются, чтобы сообщить о первой по порядку точке, как tabulate
+    private static double[] tabulateValues(Function function, double leftX, double rightX, int pointsCount,
+                                           ExecutorService executor) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        checkTabulationBorders(function, leftX, rightX);
+        if (executor == null) {
+            throw new IllegalArgumentException("Исполнитель не может быть null");
         }
+
+        double[] xs = new double[pointsCount];
+        double[] values = new double[pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+        AtomicInteger firstNaN = new AtomicInteger(Integer.MAX_VALUE);
+
+        int blocks = (pointsCount + PARALLEL_BLOCK_SIZE - 1) / PARALLEL_BLOCK_SIZE;
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int tasks = Math.min(blocks, parallelism * 4);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        int[] taskStarts = new int[tasks];
+        for (int t = 0; t < tasks; t++) {
+            int firstBlock = (int) ((long) blocks * t / tasks);
+            int lastBlock = (int) ((long) blocks * (t + 1) / tasks);
+            taskStarts[t] = firstBlock * PARALLEL_BLOCK_SIZE;
+            futures.add(executor.submit(() -> {
+                for (int j = firstBlock; j < lastBlock && !Thread.currentThread().isInterrupted(); j++) {
+                    int from = j * PARALLEL_BLOCK_SIZE;
+                    int to = Math.min(from + PARALLEL_BLOCK_SIZE, pointsCount);
+                    if (firstNaN.get() < from) {
+                        return;
+                    }
+                    for (int i = from; i < to; i++) {
+                        xs[i] = leftX + i * step;
+                    }
+                    function.getFunctionValues(xs, values, from, to);
+                    for (int i = from; i < to; i++) {
+                        if (Double.isNaN(values[i])) {
+                            firstNaN.accumulateAndGet(i, Math::min);
+                            return;
+                        }
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (int t = 0; t < tasks; t++) {
+                if (taskStarts[t] > firstNaN.get()) {
+                    cancelFrom(futures, t);
+                    break;
+                }
+                futures.get(t).get();
+            }
+        } catch (ExecutionException e) {
+            cancelFrom(futures, 0);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Ошибка параллельного табулирования", e.getCause());
+        } catch (InterruptedException e) {
+            cancelFrom(futures, 0);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Параллельное табулирование прервано", e);
+        }
+
+        int index = firstNaN.get();
+        if (index != Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Функция не определена в точке x = %.2f", leftX + index * step));
+        }
+        return values;
+    }
+
+    private static void cancelFrom(List<Future<?>> futures, int first) {
+        for (int t = first; t < futures.size(); t++) {
+            futures.get(t).cancel(true);
+        }
+    }
+
+    // Проверка аргументов и вычисление значений функции в равноотстоящих точках одним пакетным вызовом
+    private static double[] tabulateValues(Function function, double leftX, double rightX, int pointsCount) {
         if (pointsCount < 2) {
             throw new IllegalArgumentException("Количество точек должно быть не менее 2");
         }
+        checkTabulationBorders(function, leftX, rightX);
+
+        double[] xs = new double[pointsCount];
+        double[] values = new double[pointsCount];
+        double step = (rightX - leftX) / (pointsCount - 1);
+
+        for (int i = 0; i < pointsCount; i++) {
+            xs[i] = leftX + i * step;
+        }
+        function.getFunctionValues(xs, values, 0, pointsCount);
+
+        for (int i = 0; i < pointsCount; i++) {
+            if (Double.isNaN(values[i])) {
+                throw new IllegalArgumentException(String.format("Функция не определена в точке x = %.2f", xs[i]));
+            }
+        }
+
+        return values;
+    }
+
+    private static void checkTabulationBorders(Function function, double leftX, double rightX) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
+        }
         if (leftX >= rightX) {
             throw new IllegalArgumentException("Левая граница должна быть меньше правой");
         }
@@ -114,57 +273,237 @@ public final class TabulatedFunctions {
         if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
             throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
         }
+    }
 
-        double[] values = new double[pointsCount];
-        double step = (rightX - leftX) / (pointsCount - 1);
+    // ========== Адаптивное табулирование ==========
 
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = function.getFunctionValue(x);
+    // Табулирование с неравномерным шагом: отрезки делятся пополам, пока отклонение функции от хорды
+    // не станет не больше maxError. Густые узлы ставятся только там, где функция сильно изогнута
+    public static TabulatedFunction tabulateAdaptive(Function function, double leftX, double rightX, double maxError) {
+        return tabulateAdaptive(function, leftX, rightX, maxError, factory);
+    }
 
-            if (Double.isNaN(y)) {
-                throw new IllegalArgumentException(String.format("Функция не определена в точке x = %.2f", x));
+    public static TabulatedFunction tabulateAdaptive(Function function, double leftX, double rightX,
+                                                     double maxError, TabulatedFunctionFactory customFactory) {
+        return customFactory.createTabulatedFunction(adaptivePoints(function, leftX, rightX, maxError));
+    }
+
+    public static TabulatedFunction tabulateAdaptive(Function function, double leftX, double rightX,
+                                                     double maxError, Class<? extends TabulatedFunction> functionClass) {
+        return createTabulatedFunction(functionClass, adaptivePoints(function, leftX, rightX, maxError));
+    }
+
+    // Начальная равномерная сетка уточняется по уровням. Отрезок принимается, если в точках 1/4, 1/2 и 3/4
+    // функция отклоняется от хорды не больше maxError (отклонение линейной интерполяции между узлами);
+    // иначе он делится пополам, и его точки 1/4 и 3/4 становятся серединами половин. Все новые точки
+    // уровня вычисляются одним пакетным вызовом
+    private static FunctionPoint[] adaptivePoints(Function function, double leftX, double rightX, double maxError) {
+        checkTabulationBorders(function, leftX, rightX);
+        if (!(maxError > 0) || Double.isInfinite(maxError)) {
+            throw new IllegalArgumentException("Допустимая погрешность должна быть положительным числом");
+        }
+
+        double step = (rightX - leftX) / ADAPTIVE_INITIAL_SEGMENTS;
+        double[] nodes = new double[ADAPTIVE_INITIAL_SEGMENTS + 1];
+        for (int i = 0; i <= ADAPTIVE_INITIAL_SEGMENTS; i++) {
+            nodes[i] = i == ADAPTIVE_INITIAL_SEGMENTS ? rightX : leftX + i * step;
+        }
+        double[] nodeValues = evaluate(function, nodes, nodes.length);
+
+        List<AdaptiveSegment> pending = new ArrayList<>();
+        for (int i = 0; i < ADAPTIVE_INITIAL_SEGMENTS; i++) {
+            pending.add(new AdaptiveSegment(nodes[i], nodeValues[i], nodes[i + 1], nodeValues[i + 1], Double.NaN));
+        }
+
+        List<AdaptiveSegment> accepted = new ArrayList<>();
+        int pointsCount = ADAPTIVE_INITIAL_SEGMENTS + 1;
+        while (!pending.isEmpty()) {
+            double[] xs = new double[3 * pending.size()];
+            int count = 0;
+            for (AdaptiveSegment segment : pending) {
+                if (Double.isNaN(segment.middleY)) {
+                    xs[count++] = segment.middle();
+                }
+                xs[count++] = segment.leftX + (segment.rightX - segment.leftX) / 4.0;
+                xs[count++] = segment.rightX - (segment.rightX - segment.leftX) / 4.0;
+            }
+            double[] ys = evaluate(function, xs, count);
+
+            List<AdaptiveSegment> next = new ArrayList<>();
+            int k = 0;
+            for (AdaptiveSegment segment : pending) {
+                double middleY = Double.isNaN(segment.middleY) ? ys[k++] : segment.middleY;
+                double quarterY = ys[k++];
+                double threeQuartersY = ys[k++];
+
+                double error = Math.max(Math.abs(middleY - (segment.leftY + segment.rightY) / 2.0),
+                        Math.max(Math.abs(quarterY - (3 * segment.leftY + segment.rightY) / 4.0),
+                                Math.abs(threeQuartersY - (segment.leftY + 3 * segment.rightY) / 4.0)));
+                if (error <= maxError) {
+                    accepted.add(segment);
+                    continue;
+                }
+
+                if (segment.rightX - segment.leftX < 2 * MIN_ADAPTIVE_STEP) {
+                    throw new IllegalArgumentException(String.format(
+                            "Точность не достигается около x = %.10f: функция разрывна или слишком быстро меняется",
+                            segment.middle()));
+                }
+                pointsCount++;
+                if (pointsCount > MAX_ADAPTIVE_POINTS) {
+                    throw new IllegalArgumentException("Для точности " + maxError + " нужно больше "
+                            + MAX_ADAPTIVE_POINTS + " точек");
+                }
+                double middle = segment.middle();
+                next.add(new AdaptiveSegment(segment.leftX, segment.leftY, middle, middleY, quarterY));
+                next.add(new AdaptiveSegment(middle, middleY, segment.rightX, segment.rightY, threeQuartersY));
             }
+            pending = next;
+        }
 
-            values[i] = y;
+        accepted.sort(Comparator.comparingDouble(segment -> segment.leftX));
+        FunctionPoint[] points = new FunctionPoint[accepted.size() + 1];
+        points[0] = new FunctionPoint(leftX, accepted.get(0).leftY);
+        for (int i = 0; i < accepted.size(); i++) {
+            points[i + 1] = new FunctionPoint(accepted.get(i).rightX, accepted.get(i).rightY);
         }
+        return points;
+    }
 
-        return customFactory.createTabulatedFunction(leftX, rightX, values);
+    private static double[] evaluate(Function function, double[] xs, int count) {
+        double[] ys = new double[count];
+        function.getFunctionValues(xs, ys, 0, count);
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(ys[i])) {
+                throw new IllegalArgumentException(String.format("Функция не определена в точке x = %.2f", xs[i]));
+            }
+        }
+        return ys;
     }
 
-    // ========== НОВЫЙ МЕТОД: tabulate с рефлексией ==========
-    public static TabulatedFunction tabulate(Function function, double leftX, double rightX,
-                                             int pointsCount, Class<? extends TabulatedFunction> functionClass) {
+    // Отрезок адаптивного табулирования; значение в середине известно после деления родителя (иначе NaN)
+    private static final class AdaptiveSegment {
+        private final double leftX;
+        private final double leftY;
+        private final double rightX;
+        private final double rightY;
+        private final double middleY;
+
+        AdaptiveSegment(double leftX, double leftY, double rightX, double rightY, double middleY) {
+            this.leftX = leftX;
+            this.leftY = leftY;
+            this.rightX = rightX;
+            this.rightY = rightY;
+            this.middleY = middleY;
+        }
+
+        double middle() {
+            return leftX + (rightX - leftX) / 2.0;
+        }
+    }
+
+    // ========== Неизменяемая копия ==========
+
+    // Копия табулированной функции, которую нельзя изменить. Обёртки из functions.meta вычисляют её
+    // границы один раз при создании; изменяемую табулированную функцию они перечитывают при каждом вызове
+    public static TabulatedFunction snapshot(TabulatedFunction function) {
         if (function == null) {
             throw new IllegalArgumentException("Функция не может быть null");
         }
-        if (pointsCount < 2) {
-            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        if (function instanceof UnmodifiableTabulatedFunction) {
+            return function;
+        }
+        return new UnmodifiableTabulatedFunction(function);
+    }
+
+    // ========== Точное интегрирование ==========
+
+    // Точный интеграл табулированной функции по [leftX; rightX] с учётом способа интерполяции.
+    // Кусочно-линейная функция: обход только узлов внутри интервала, крайние отрезки обрезаются по границам
+    public static double integrate(TabulatedFunction function, double leftX, double rightX) {
+        if (function == null) {
+            throw new IllegalArgumentException("Функция не может быть null");
         }
         if (leftX >= rightX) {
             throw new IllegalArgumentException("Левая граница должна быть меньше правой");
         }
-
         if (leftX < function.getLeftDomainBorder() || rightX > function.getRightDomainBorder()) {
-            throw new IllegalArgumentException("Границы табулирования выходят за область определения функции");
+            throw new IllegalArgumentException("Интервал интегрирования выходит за границы области определения функции");
+        }
+        if (function instanceof UnmodifiableTabulatedFunction) {
+            function = ((UnmodifiableTabulatedFunction) function).getSource();
         }
 
-        double[] values = new double[pointsCount];
-        double step = (rightX - leftX) / (pointsCount - 1);
+        // Сплайны и ближайший узел интегрируются по коэффициентам многочленов на отрезках.
+        // Индекс площадей хранит трапеции и подходит только для линейной интерполяции: с ним интеграл - O(log n)
+        SegmentAreaIndex index = null;
+        InterpolationKernel interpolation = null;
+        if (function instanceof ArrayTabulatedFunction) {
+            index = ((ArrayTabulatedFunction) function).getIntegralIndex();
+            interpolation = ((ArrayTabulatedFunction) function).getInterpolationKernel();
+        } else if (function instanceof LinkedListTabulatedFunction) {
+            index = ((LinkedListTabulatedFunction) function).getIntegralIndex();
+            interpolation = ((LinkedListTabulatedFunction) function).getInterpolationKernel();
+        }
+        if (interpolation != null) {
+            return interpolation.integrate(leftX, rightX);
+        }
+        if (index != null) {
+            return index.integrate(leftX, rightX);
+        }
 
-        for (int i = 0; i < pointsCount; i++) {
-            double x = leftX + i * step;
-            double y = function.getFunctionValue(x);
+        // У связного списка нет доступа по индексу за O(1), поэтому он обходится итератором
+        if (function instanceof LinkedListTabulatedFunction) {
+            double integral = 0.0;
+            FunctionPoint previous = null;
+            for (FunctionPoint point : function) {
+                if (previous != null) {
+                    if (previous.getX() >= rightX) {
+                        break;
+                    }
+                    integral += segmentArea(previous.getX(), previous.getY(), point.getX(), point.getY(), leftX, rightX);
+                }
+                previous = point;
+            }
+            return integral;
+        }
 
-            if (Double.isNaN(y)) {
-                throw new IllegalArgumentException(String.format("Функция не определена в точке x = %.2f", x));
+        // Двоичный поиск первого отрезка, затрагивающего интервал
+        int lo = 0;
+        int hi = function.getPointsCount() - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (function.getPointX(mid) <= leftX) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
             }
+        }
 
-            values[i] = y;
+        double integral = 0.0;
+        double x1 = function.getPointX(lo);
+        double y1 = function.getPointY(lo);
+        for (int i = lo + 1; i < function.getPointsCount() && x1 < rightX; i++) {
+            double x2 = function.getPointX(i);
+            double y2 = function.getPointY(i);
+            integral += segmentArea(x1, y1, x2, y2, leftX, rightX);
+            x1 = x2;
+            y1 = y2;
         }
+        return integral;
+    }
 
-        // Используем рефлексивный метод создания
-        return createTabulatedFunction(functionClass, leftX, rightX, values);
+    // Площадь под отрезком (x1, y1)-(x2, y2), обрезанным по [leftX; rightX]
+    private static double segmentArea(double x1, double y1, double x2, double y2, double leftX, double rightX) {
+        double a = Math.max(x1, leftX);
+        double b = Math.min(x2, rightX);
+        if (b <= a) {
+            return 0.0;
+        }
+        double slope = (y2 - y1) / (x2 - x1);
+        double ya = a == x1 ? y1 : y1 + slope * (a - x1);
+        double yb = b == x2 ? y2 : y1 + slope * (b - x1);
+        return (ya + yb) * (b - a) / 2.0;
     }
 
     // ========== Существующие методы остаются без изменений ==========
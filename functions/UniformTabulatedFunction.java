@@ -0,0 +1,390 @@
+package functions;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Iterator;
+
+public class UniformTabulatedFunction implements TabulatedFunction, Externalizable {
+    // Значение, вычисленное по версии класса до его объявления: уже записанные объекты остаются читаемыми
+    private static final long serialVersionUID = 2825190594762780477L;
+    private double leftX;
+    private double step;
+    private double[] xs; // null, пока сетка равномерная: x_i = leftX + i * step
+    private double[] ys;
+    private int pointsCount;
+    private static final double EPSILON = 1e-10;
+
+    public UniformTabulatedFunction() {
+    }
+
+    public UniformTabulatedFunction(double leftX, double rightX, int pointsCount) {
+        this(leftX, rightX, checkPointsCount(pointsCount));
+    }
+
+    public UniformTabulatedFunction(double leftX, double rightX, double[] values) {
+        if (leftX >= rightX) {
+            throw new IllegalArgumentException("Левая граница должна быть меньше правой");
+        }
+        if (values.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        this.pointsCount = values.length;
+        this.leftX = leftX;
+        this.step = (rightX - leftX) / (pointsCount - 1);
+        this.ys = values.clone();
+    }
+
+    public UniformTabulatedFunction(FunctionPoint[] points) {
+        if (points.length < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+
+        // Проверка упорядоченности по X
+        for (int i = 1; i < points.length; i++) {
+            if (points[i].getX() <= points[i - 1].getX() + EPSILON) {
+                throw new IllegalArgumentException("Точки должны быть упорядочены по возрастанию X");
+            }
+        }
+
+        double[] x = new double[points.length];
+        double[] y = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            x[i] = points[i].getX();
+            y[i] = points[i].getY();
+        }
+        init(x, y, points.length);
+    }
+
+    private static double[] checkPointsCount(int pointsCount) {
+        if (pointsCount < 2) {
+            throw new IllegalArgumentException("Количество точек должно быть не менее 2");
+        }
+        return new double[pointsCount];
+    }
+
+    // Сохраняем только Y, если узлы точно совпадают с равномерной сеткой, иначе храним X явно
+    private void init(double[] x, double[] y, int count) {
+        this.pointsCount = count;
+        this.leftX = x[0];
+        this.step = (x[count - 1] - x[0]) / (count - 1);
+        this.ys = y;
+        this.xs = null;
+
+        for (int i = 0; i < count; i++) {
+            if (x[i] != leftX + i * step) {
+                this.xs = x;
+                break;
+            }
+        }
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(pointsCount);
+        for (int i = 0; i < pointsCount; i++) {
+            out.writeDouble(x(i));
+            out.writeDouble(ys[i]);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = in.readDouble();
+            y[i] = in.readDouble();
+        }
+        init(x, y, count);
+    }
+
+    // Хранится ли функция в виде равномерной сетки (без столбца X)
+    public boolean isUniform() {
+        return xs == null;
+    }
+
+    private double x(int index) {
+        return xs == null ? leftX + index * step : xs[index];
+    }
+
+    // Переход к явному хранению X, когда изменение нарушает равномерность сетки
+    private void toExplicit() {
+        double[] newXs = new double[ys.length];
+        for (int i = 0; i < pointsCount; i++) {
+            newXs[i] = leftX + i * step;
+        }
+        xs = newXs;
+    }
+
+    public double getLeftDomainBorder() {
+        return x(0);
+    }
+
+    public double getRightDomainBorder() {
+        return x(pointsCount - 1);
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() - EPSILON || x > getRightDomainBorder() + EPSILON) {
+            return Double.NaN;
+        }
+
+        return valueInSegment(findSegment(x), x);
+    }
+
+    // Пакетное вычисление: поиск отрезка на равномерной сетке и так стоит O(1)
+    public void getFunctionValues(double[] args, double[] out, int from, int to) {
+        double left = getLeftDomainBorder() - EPSILON;
+        double right = getRightDomainBorder() + EPSILON;
+
+        for (int k = from; k < to; k++) {
+            double x = args[k];
+            out[k] = (x >= left && x <= right) ? valueInSegment(findSegment(x), x) : Double.NaN;
+        }
+    }
+
+    private double valueInSegment(int i, double x) {
+        double x1 = x(i);
+        double x2 = x(i + 1);
+
+        if (Math.abs(x1 - x) < EPSILON) {
+            return ys[i];
+        }
+        if (Math.abs(x2 - x) < EPSILON) {
+            return ys[i + 1];
+        }
+
+        return ys[i] + (ys[i + 1] - ys[i]) * (x - x1) / (x2 - x1);
+    }
+
+    // Индекс отрезка [x_i; x_i+1], содержащего x (крайние отрезки принимают и точки за границей)
+    private int findSegment(double x) {
+        int last = pointsCount - 2;
+
+        if (xs == null) {
+            // Прямое вычисление индекса с поправкой на погрешность округления
+            int i = (int) ((x - leftX) / step);
+            i = Math.max(0, Math.min(last, i));
+            if (i > 0 && x < leftX + i * step) {
+                i--;
+            } else if (i < last && x >= leftX + (i + 1) * step) {
+                i++;
+            }
+            return i;
+        }
+
+        int lo = 0;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (xs[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    public int getPointsCount() {
+        return pointsCount;
+    }
+
+    public FunctionPoint getPoint(int index) {
+        checkIndex(index);
+        return new FunctionPoint(x(index), ys[index]);
+    }
+
+    public void setPoint(int index, FunctionPoint point) throws InappropriateFunctionPointException {
+        setPointX(index, point.getX());
+        ys[index] = point.getY();
+    }
+
+    public double getPointX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public void setPointX(int index, double x) throws InappropriateFunctionPointException {
+        checkIndex(index);
+
+        if (index > 0 && x <= x(index - 1) + EPSILON) {
+            throw new InappropriateFunctionPointException("X точки должен быть больше предыдущей точки");
+        }
+        if (index < pointsCount - 1 && x >= x(index + 1) - EPSILON) {
+            throw new InappropriateFunctionPointException("X точки должен быть меньше следующей точки");
+        }
+
+        if (x == x(index)) {
+            return;
+        }
+        if (xs == null) {
+            toExplicit();
+        }
+        xs[index] = x;
+    }
+
+    public double getPointY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public void setPointY(int index, double y) {
+        checkIndex(index);
+        ys[index] = y;
+    }
+
+    public void deletePoint(int index) {
+        checkIndex(index);
+        if (pointsCount <= 2) {
+            throw new IllegalStateException("Нельзя удалить точку: должно остаться минимум 2 точки");
+        }
+
+        // Удаление последней точки сохраняет равномерность сетки
+        if (xs == null && index != pointsCount - 1) {
+            toExplicit();
+        }
+        if (xs != null) {
+            System.arraycopy(xs, index + 1, xs, index, pointsCount - index - 1);
+        }
+        System.arraycopy(ys, index + 1, ys, index, pointsCount - index - 1);
+        pointsCount--;
+    }
+
+    public void addPoint(FunctionPoint point) throws InappropriateFunctionPointException {
+        double newX = point.getX();
+
+        int insertIndex = 0;
+        while (insertIndex < pointsCount && x(insertIndex) < newX - EPSILON) {
+            insertIndex++;
+        }
+        if (insertIndex < pointsCount && Math.abs(x(insertIndex) - newX) < EPSILON) {
+            throw new InappropriateFunctionPointException("Точка с таким X уже существует");
+        }
+
+        // Добавление следующего узла сетки справа сохраняет равномерность
+        if (xs == null && !(insertIndex == pointsCount && newX == leftX + pointsCount * step)) {
+            toExplicit();
+        }
+
+        if (pointsCount == ys.length) {
+            double[] newYs = new double[ys.length * 2];
+            System.arraycopy(ys, 0, newYs, 0, pointsCount);
+            ys = newYs;
+            if (xs != null) {
+                double[] newXs = new double[ys.length];
+                System.arraycopy(xs, 0, newXs, 0, pointsCount);
+                xs = newXs;
+            }
+        }
+
+        if (xs != null) {
+            System.arraycopy(xs, insertIndex, xs, insertIndex + 1, pointsCount - insertIndex);
+            xs[insertIndex] = newX;
+        }
+        System.arraycopy(ys, insertIndex, ys, insertIndex + 1, pointsCount - insertIndex);
+        ys[insertIndex] = point.getY();
+        pointsCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= pointsCount) {
+            throw new FunctionPointIndexOutOfBoundsException("Индекс выходит за границы: " + index);
+        }
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        for (int i = 0; i < pointsCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(new FunctionPoint(x(i), ys[i]).toString());
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TabulatedFunction)) return false;
+
+        TabulatedFunction otherFunc = (TabulatedFunction) o;
+
+        if (this.pointsCount != otherFunc.getPointsCount()) {
+            return false;
+        }
+
+        // Сравнение с той же погрешностью, что и в FunctionPoint.equals
+        for (int i = 0; i < pointsCount; i++) {
+            FunctionPoint otherPoint = otherFunc.getPoint(i);
+            if (Math.abs(x(i) - otherPoint.getX()) >= EPSILON || Math.abs(ys[i] - otherPoint.getY()) >= EPSILON) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int hashCode() {
+        int hash = pointsCount;
+
+        // Тот же XOR хэш-кодов точек, что и у остальных табулированных функций
+        for (int i = 0; i < pointsCount; i++) {
+            hash ^= FunctionPoint.hashCode(x(i), ys[i]);
+        }
+
+        return hash;
+    }
+
+    public TabulatedFunction clone() {
+        try {
+            UniformTabulatedFunction cloned = (UniformTabulatedFunction) super.clone();
+            cloned.ys = ys.clone();
+            cloned.xs = xs == null ? null : xs.clone();
+            return cloned;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public Iterator<FunctionPoint> iterator() {
+        return new Iterator<FunctionPoint>() {
+            private int currentIndex = 0;
+
+            public boolean hasNext() {
+                return currentIndex < pointsCount;
+            }
+
+            public FunctionPoint next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException("No more elements");
+                }
+                FunctionPoint point = new FunctionPoint(x(currentIndex), ys[currentIndex]);
+                currentIndex++;
+                return point;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException("Remove operation is not supported");
+            }
+        };
+    }
+
+    public static class UniformTabulatedFunctionFactory implements TabulatedFunctionFactory {
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, int pointsCount) {
+            return new UniformTabulatedFunction(leftX, rightX, pointsCount);
+        }
+
+        public TabulatedFunction createTabulatedFunction(double leftX, double rightX, double[] values) {
+            return new UniformTabulatedFunction(leftX, rightX, values);
+        }
+
+        public TabulatedFunction createTabulatedFunction(FunctionPoint[] points) {
+            return new UniformTabulatedFunction(points);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package functions;
+
+import java.util.Iterator;
+
+// Неизменяемая копия табулированной функции, создаётся через TabulatedFunctions.snapshot.
+// Копия принадлежит только этому объекту, а изменяющие методы выбрасывают UnsupportedOperationException,
+// поэтому обёртки из functions.meta вычисляют её границы один раз, как для обычных функций.
+// clone() возвращает обычную изменяемую копию
+public final class UnmodifiableTabulatedFunction implements TabulatedFunction {
+    private final TabulatedFunction source;
+
+    UnmodifiableTabulatedFunction(TabulatedFunction function) {
+        this.source = function.clone();
+    }
+
+    // Внутренняя копия для путей, которым нужен конкретный класс (точное интегрирование, отпечаток)
+    TabulatedFunction getSource() {
+        return source;
+    }
+
+    public double getLeftDomainBorder() {
+        return source.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return source.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        return source.getFunctionValue(x);
+    }
+
+    public void getFunctionValues(double[] args, double[] out, int from, int to) {
+        source.getFunctionValues(args, out, from, to);
+    }
+
+    public Function getAntiderivative() {
+        return source.getAntiderivative();
+    }
+
+    public int getPointsCount() {
+        return source.getPointsCount();
+    }
+
+    public double getPointX(int index) {
+        return source.getPointX(index);
+    }
+
+    public double getPointY(int index) {
+        return source.getPointY(index);
+    }
+
+    public FunctionPoint getPoint(int index) {
+        return source.getPoint(index);
+    }
+
+    public void setPointX(int index, double x) {
+        throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+    }
+
+    public void setPointY(int index, double y) {
+        throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+    }
+
+    public void setPoint(int index, FunctionPoint point) {
+        throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+    }
+
+    public void addPoint(FunctionPoint point) {
+        throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+    }
+
+    public void deletePoint(int index) {
+        throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+    }
+
+    public TabulatedFunction clone() {
+        return source.clone();
+    }
+
+    public Iterator<FunctionPoint> iterator() {
+        Iterator<FunctionPoint> iterator = source.iterator();
+        return new Iterator<FunctionPoint>() {
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            public FunctionPoint next() {
+                return iterator.next();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException("Табулированная функция не может быть изменена");
+            }
+        };
+    }
+
+    public String toString() {
+        return source.toString();
+    }
+
+    public boolean equals(Object o) {
+        return this == o || source.equals(o);
+    }
+
+    public int hashCode() {
+        return source.hashCode();
+    }
+}
@@ -0,0 +1,11 @@
+package functions.basic;
+
+// Уровень точности элементарных функций
+public enum Accuracy {
+    // Math.sin, Math.exp и т.д. - исходное поведение, значение по умолчанию
+    STRICT,
+    // Собственные ядра с погрешностью порядка 1e-12
+    HIGH,
+    // Собственные ядра с погрешностью порядка 1e-7
+    FAST
+}
@@ -0,0 +1,50 @@
+package functions.basic;
+
+import functions.Function;
+
+public class Const implements Function {
+    private double value;
+
+    public Const(double value){
+        this.value = value;
+    }
+
+    public double getFunctionValue(double x){
+        return value;
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        for (int i = from; i < to; i++){
+            out[i] = value;
+        }
+    }
+
+    public double getLeftDomainBorder(){
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    public double getRightDomainBorder(){
+        return Double.POSITIVE_INFINITY;
+    }
+
+    // Первообразная константы - линейная функция value * x
+    public Function getAntiderivative(){
+        return new Function() {
+            public double getLeftDomainBorder(){
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            public double getRightDomainBorder(){
+                return Double.POSITIVE_INFINITY;
+            }
+
+            public double getFunctionValue(double x){
+                return value * x;
+            }
+        };
+    }
+
+    public double getValue(){
+        return value;
+    }
+}
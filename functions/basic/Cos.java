@@ -1,8 +1,37 @@
 package functions.basic;
 
+import functions.Function;
+
 public class Cos extends TrigonometricFunction{
 
+    public Cos(){
+    }
+
+    public Cos(Accuracy accuracy){
+        super(accuracy);
+    }
+
     public double getFunctionValue(double x){
-        return Math.cos(x);
+        if (getAccuracy() == Accuracy.STRICT){
+            return Math.cos(x);
+        }
+        return FastMath.cos(x, getAccuracy());
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        Accuracy accuracy = getAccuracy();
+        if (accuracy == Accuracy.STRICT){
+            for (int i = from; i < to; i++){
+                out[i] = Math.cos(xs[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++){
+                out[i] = FastMath.cos(xs[i], accuracy);
+            }
+        }
+    }
+
+    public Function getAntiderivative(){
+        return new Sin();
     }
 }
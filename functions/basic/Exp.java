@@ -3,8 +3,40 @@ package functions.basic;
 import functions.Function;
 
 public class Exp implements Function {
+    private final Accuracy accuracy;
+
+    public Exp(){
+        this(Accuracy.STRICT);
+    }
+
+    public Exp(Accuracy accuracy){
+        if (accuracy == null){
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        this.accuracy = accuracy;
+    }
+
     public double getFunctionValue(double x){
-        return Math.exp(x);
+        if (accuracy == Accuracy.STRICT){
+            return Math.exp(x);
+        }
+        return FastMath.exp(x, accuracy);
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        if (accuracy == Accuracy.STRICT){
+            for (int i = from; i < to; i++){
+                out[i] = Math.exp(xs[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++){
+                out[i] = FastMath.exp(xs[i], accuracy);
+            }
+        }
+    }
+
+    public Function getAntiderivative(){
+        return this;
     }
 
 
@@ -15,4 +47,8 @@ public class Exp implements Function {
     public double getRightDomainBorder(){
         return Double.POSITIVE_INFINITY;
     }
+
+    public Accuracy getAccuracy(){
+        return accuracy;
+    }
 }
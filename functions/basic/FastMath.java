@@ -0,0 +1,157 @@
+package functions.basic;
+
+// Ядра элементарных функций для уровней HIGH и FAST: приведение аргумента и многочлен Тейлора на малом отрезке.
+// Для аргументов, на которых приведение теряет точность (|x| > 1e6 у тригонометрических функций,
+// переполнение и денормализованные числа у exp и log), а также для NaN и бесконечностей используется Math
+final class FastMath {
+    // pi/2 = PIO2_1 + PIO2_2 + PIO2_3 (разложение из fdlibm): k * PIO2_1 и k * PIO2_2 точны при k < 2^20
+    private static final double PIO2_1 = 1.57079632673412561417e+00;
+    private static final double PIO2_2 = 6.07710050630396597660e-11;
+    private static final double PIO2_3 = 2.02226624879595063154e-21;
+    private static final double TWO_OVER_PI = 6.36619772367581382433e-01;
+    private static final double MAX_TRIGONOMETRIC_ARGUMENT = 1e6;
+
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+    private static final double INV_LN2 = 1.44269504088896338700e+00;
+    private static final double SQRT2 = 1.41421356237309504880;
+    private static final double MAX_EXP_ARGUMENT = 708;
+
+    private FastMath() {
+    }
+
+    static double sin(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= MAX_TRIGONOMETRIC_ARGUMENT)) {
+            return Math.sin(x);
+        }
+        if (Math.abs(x) <= Math.PI / 4) {
+            return x == 0 ? x : sinKernel(x, accuracy); // Сохраняем знак нуля, как Math.sin
+        }
+        double k = Math.rint(x * TWO_OVER_PI);
+        double r = reduce(x, k);
+        switch ((int) k & 3) {
+            case 0:
+                return sinKernel(r, accuracy);
+            case 1:
+                return cosKernel(r, accuracy);
+            case 2:
+                return -sinKernel(r, accuracy);
+            default:
+                return -cosKernel(r, accuracy);
+        }
+    }
+
+    static double cos(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= MAX_TRIGONOMETRIC_ARGUMENT)) {
+            return Math.cos(x);
+        }
+        if (Math.abs(x) <= Math.PI / 4) {
+            return cosKernel(x, accuracy);
+        }
+        double k = Math.rint(x * TWO_OVER_PI);
+        double r = reduce(x, k);
+        switch ((int) k & 3) {
+            case 0:
+                return cosKernel(r, accuracy);
+            case 1:
+                return -sinKernel(r, accuracy);
+            case 2:
+                return -cosKernel(r, accuracy);
+            default:
+                return sinKernel(r, accuracy);
+        }
+    }
+
+    // Тангенс с тем же правилом, что у Tan: NaN, если |cos x| < 1e-10. Синус и косинус считаются по одному приведению
+    static double tan(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= MAX_TRIGONOMETRIC_ARGUMENT)) {
+            return Math.abs(Math.cos(x)) < 1e-10 ? Double.NaN : Math.tan(x);
+        }
+        if (x == 0) {
+            return x;
+        }
+        double k = Math.abs(x) <= Math.PI / 4 ? 0 : Math.rint(x * TWO_OVER_PI);
+        double r = k == 0 ? x : reduce(x, k);
+        double s = sinKernel(r, accuracy);
+        double c = cosKernel(r, accuracy);
+
+        // В чётных четвертях tan x = tan r, в нечётных tan x = -cot r
+        boolean even = ((int) k & 1) == 0;
+        double cosine = even ? c : s;
+        if (Math.abs(cosine) < 1e-10) {
+            return Double.NaN;
+        }
+        return even ? s / c : -c / s;
+    }
+
+    private static double reduce(double x, double k) {
+        return ((x - k * PIO2_1) - k * PIO2_2) - k * PIO2_3;
+    }
+
+    // sin r при |r| <= pi/4: члены до r^13 (HIGH) или до r^9 (FAST)
+    private static double sinKernel(double r, Accuracy accuracy) {
+        double r2 = r * r;
+        if (accuracy == Accuracy.HIGH) {
+            return r + r * r2 * (-1.0 / 6 + r2 * (1.0 / 120 + r2 * (-1.0 / 5040 + r2 * (1.0 / 362880
+                    + r2 * (-1.0 / 39916800 + r2 * (1.0 / 6227020800.0))))));
+        }
+        return r + r * r2 * (-1.0 / 6 + r2 * (1.0 / 120 + r2 * (-1.0 / 5040 + r2 * (1.0 / 362880))));
+    }
+
+    // cos r при |r| <= pi/4: члены до r^14 (HIGH) или до r^8 (FAST)
+    private static double cosKernel(double r, Accuracy accuracy) {
+        double r2 = r * r;
+        if (accuracy == Accuracy.HIGH) {
+            return 1 + r2 * (-1.0 / 2 + r2 * (1.0 / 24 + r2 * (-1.0 / 720 + r2 * (1.0 / 40320
+                    + r2 * (-1.0 / 3628800 + r2 * (1.0 / 479001600 + r2 * (-1.0 / 87178291200.0)))))));
+        }
+        return 1 + r2 * (-1.0 / 2 + r2 * (1.0 / 24 + r2 * (-1.0 / 720 + r2 * (1.0 / 40320))));
+    }
+
+    // exp x = 2^k * exp r, |r| <= ln2 / 2: члены до r^11 (HIGH) или до r^7 (FAST)
+    static double exp(double x, Accuracy accuracy) {
+        if (!(Math.abs(x) <= MAX_EXP_ARGUMENT)) {
+            return Math.exp(x);
+        }
+        double k = Math.rint(x * INV_LN2);
+        double r = (x - k * LN2_HI) - k * LN2_LO;
+
+        double p;
+        if (accuracy == Accuracy.HIGH) {
+            p = 1 + r * (1 + r * (1.0 / 2 + r * (1.0 / 6 + r * (1.0 / 24 + r * (1.0 / 120 + r * (1.0 / 720
+                    + r * (1.0 / 5040 + r * (1.0 / 40320 + r * (1.0 / 362880 + r * (1.0 / 3628800
+                    + r * (1.0 / 39916800)))))))))));
+        } else {
+            p = 1 + r * (1 + r * (1.0 / 2 + r * (1.0 / 6 + r * (1.0 / 24 + r * (1.0 / 120 + r * (1.0 / 720
+                    + r * (1.0 / 5040)))))));
+        }
+        // 2^k собирается прямо из битов порядка: |k| <= 1022
+        return p * Double.longBitsToDouble((long) ((int) k + 1023) << 52);
+    }
+
+    // ln x = e * ln2 + ln m, m из [sqrt(2)/2; sqrt(2)); ln m = 2 * atanh(s), s = (m - 1) / (m + 1), |s| <= 0.172:
+    // члены ряда до s^15 (HIGH) или до s^7 (FAST). Аргумент должен быть положительным
+    static double log(double x, Accuracy accuracy) {
+        if (!(x >= Double.MIN_NORMAL && x <= Double.MAX_VALUE)) {
+            return Math.log(x);
+        }
+        long bits = Double.doubleToRawLongBits(x);
+        int e = (int) (bits >>> 52) - 1023;
+        double m = Double.longBitsToDouble((bits & 0x000fffffffffffffL) | 0x3ff0000000000000L);
+        if (m > SQRT2) {
+            m *= 0.5;
+            e++;
+        }
+
+        double s = (m - 1) / (m + 1);
+        double s2 = s * s;
+        double series;
+        if (accuracy == Accuracy.HIGH) {
+            series = 1 + s2 * (1.0 / 3 + s2 * (1.0 / 5 + s2 * (1.0 / 7 + s2 * (1.0 / 9 + s2 * (1.0 / 11
+                    + s2 * (1.0 / 13 + s2 * (1.0 / 15)))))));
+        } else {
+            series = 1 + s2 * (1.0 / 3 + s2 * (1.0 / 5 + s2 * (1.0 / 7)));
+        }
+        return e * LN2_HI + (e * LN2_LO + 2 * s * series);
+    }
+}
@@ -3,20 +3,40 @@ package functions.basic;
 import functions.Function;
 
 public class Log implements Function {
-    private double base;
+    private final double base;
+    private final double logBase; // ln(base) вычисляется один раз
+    private final Accuracy accuracy;
 
     public Log(double base){
+        this(base, Accuracy.STRICT);
+    }
+
+    public Log(double base, Accuracy accuracy){
         if (base <= 0 || Math.abs(base - 1.0) < 1e-10){
             throw new IllegalArgumentException("Основание логарифма должно быть положительным и не равным 1");
         }
+        if (accuracy == null){
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
         this.base = base;
+        this.logBase = Math.log(base);
+        this.accuracy = accuracy;
     }
 
     public double getFunctionValue(double x){
         if (x <= 0){
             return Double.NaN;
         }
-        return Math.log(x) / Math.log(base);
+        if (accuracy == Accuracy.STRICT){
+            return Math.log(x) / logBase;
+        }
+        return FastMath.log(x, accuracy) / logBase;
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        for (int i = from; i < to; i++){
+            out[i] = getFunctionValue(xs[i]);
+        }
     }
 
     public double getLeftDomainBorder(){
@@ -27,7 +47,31 @@ public class Log implements Function {
         return Double.POSITIVE_INFINITY;
     }
 
+    // Первообразная (x ln x - x) / ln(base); в нуле, как и сам логарифм, не определена
+    public Function getAntiderivative(){
+        return new Function() {
+            public double getLeftDomainBorder(){
+                return 0;
+            }
+
+            public double getRightDomainBorder(){
+                return Double.POSITIVE_INFINITY;
+            }
+
+            public double getFunctionValue(double x){
+                if (x <= 0){
+                    return Double.NaN;
+                }
+                return (x * Math.log(x) - x) / logBase;
+            }
+        };
+    }
+
     public double getBase(){
         return base;
     }
+
+    public Accuracy getAccuracy(){
+        return accuracy;
+    }
 }
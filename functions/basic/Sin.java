@@ -1,8 +1,38 @@
 package functions.basic;
 
+import functions.Function;
+import functions.meta.Scale;
+
 public class Sin extends TrigonometricFunction{
 
+    public Sin(){
+    }
+
+    public Sin(Accuracy accuracy){
+        super(accuracy);
+    }
+
     public double getFunctionValue(double x){
-        return Math.sin(x);
+        if (getAccuracy() == Accuracy.STRICT){
+            return Math.sin(x);
+        }
+        return FastMath.sin(x, getAccuracy());
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        Accuracy accuracy = getAccuracy();
+        if (accuracy == Accuracy.STRICT){
+            for (int i = from; i < to; i++){
+                out[i] = Math.sin(xs[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++){
+                out[i] = FastMath.sin(xs[i], accuracy);
+            }
+        }
+    }
+
+    public Function getAntiderivative(){
+        return new Scale(new Cos(), 1, -1);
     }
 }
@@ -2,11 +2,27 @@ package functions.basic;
 
 public class Tan extends TrigonometricFunction{
 
+    public Tan(){
+    }
+
+    public Tan(Accuracy accuracy){
+        super(accuracy);
+    }
+
     public double getFunctionValue(double x){
+        if (getAccuracy() != Accuracy.STRICT){
+            return FastMath.tan(x, getAccuracy());
+        }
         double cosValue = Math.cos(x);
         if (Math.abs(cosValue) < 1e-10){
             return Double.NaN;
         }
         return Math.tan(x);
     }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        for (int i = from; i < to; i++){
+            out[i] = getFunctionValue(xs[i]);
+        }
+    }
 }
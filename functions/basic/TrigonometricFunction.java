@@ -3,6 +3,19 @@ package functions.basic;
 import functions.Function;
 
 public abstract class TrigonometricFunction implements Function {
+    private final Accuracy accuracy;
+
+    protected TrigonometricFunction(){
+        this(Accuracy.STRICT);
+    }
+
+    protected TrigonometricFunction(Accuracy accuracy){
+        if (accuracy == null){
+            throw new IllegalArgumentException("Уровень точности не может быть null");
+        }
+        this.accuracy = accuracy;
+    }
+
     public double getLeftDomainBorder(){
         return Double.NEGATIVE_INFINITY;
     }
@@ -10,4 +23,8 @@ public abstract class TrigonometricFunction implements Function {
     public double getRightDomainBorder(){
         return Double.POSITIVE_INFINITY;
     }
+
+    public Accuracy getAccuracy(){
+        return accuracy;
+    }
 }
@@ -0,0 +1,142 @@
+package functions.meta;
+
+import functions.Function;
+import functions.Functions;
+import functions.basic.Const;
+
+// Аффинное преобразование функции: scaleY * f((x - shiftX) / scaleX) + shiftY.
+// Заменяет цепочку вложенных Shift и Scale одним узлом
+public class Affine implements Function {
+    private final Function original;
+    private final double scaleX;
+    private final double scaleY;
+    private final double shiftX;
+    private final double shiftY;
+    private final double left;
+    private final double right;
+    private final double originalLeft;
+    private final double originalRight;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
+
+    public Affine(Function original, double scaleX, double scaleY, double shiftX, double shiftY) {
+        if (original == null) {
+            throw new IllegalArgumentException("Исходная функция не может быть null");
+        }
+        if (Math.abs(scaleX) < 1e-10) {
+            throw new IllegalArgumentException("Коэффициент масштабирования по X не может быть нулевым");
+        }
+        this.original = original;
+        this.fixedDomain = Functions.hasFixedDomain(original);
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.shiftX = shiftX;
+        this.shiftY = shiftY;
+
+        // Образ границ исходной функции; бесконечная граница остаётся бесконечной
+        this.originalLeft = original.getLeftDomainBorder();
+        this.originalRight = original.getRightDomainBorder();
+        this.left = (scaleX > 0 ? originalLeft : originalRight) * scaleX + shiftX;
+        this.right = (scaleX > 0 ? originalRight : originalLeft) * scaleX + shiftX;
+    }
+
+    public double getLeftDomainBorder() {
+        return fixedDomain ? left : (scaleX > 0 ? originalLeft() : originalRight()) * scaleX + shiftX;
+    }
+
+    public double getRightDomainBorder() {
+        return fixedDomain ? right : (scaleX > 0 ? originalRight() : originalLeft()) * scaleX + shiftX;
+    }
+
+    private double originalLeft() {
+        return fixedDomain ? originalLeft : original.getLeftDomainBorder();
+    }
+
+    private double originalRight() {
+        return fixedDomain ? originalRight : original.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        if (x < getLeftDomainBorder() || x > getRightDomainBorder()) {
+            return Double.NaN;
+        }
+
+        double originalX = (x - shiftX) / scaleX;
+
+        if (originalX < originalLeft() || originalX > originalRight()) {
+            return Double.NaN;
+        }
+
+        double originalValue = original.getFunctionValue(originalX);
+
+        if (Double.isNaN(originalValue)) {
+            return Double.NaN;
+        }
+
+        return scaleY * originalValue + shiftY;
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        int n = to - from;
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        double originalLeft = originalLeft();
+        double originalRight = originalRight();
+
+        double[] originalXs = new double[n];
+        for (int i = 0; i < n; i++) {
+            originalXs[i] = (xs[from + i] - shiftX) / scaleX;
+        }
+        double[] originalValues = new double[n];
+        original.getFunctionValues(originalXs, originalValues, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            double x = xs[from + i];
+            double originalX = originalXs[i];
+            if (x < left || x > right || originalX < originalLeft || originalX > originalRight
+                    || Double.isNaN(originalValues[i])) {
+                out[from + i] = Double.NaN;
+            } else {
+                out[from + i] = scaleY * originalValues[i] + shiftY;
+            }
+        }
+    }
+
+    // Первообразная scaleY * scaleX * F((x - shiftX) / scaleX) + shiftY * x
+    public Function getAntiderivative() {
+        Function antiderivative = original.getAntiderivative();
+        if (antiderivative == null) {
+            return null;
+        }
+
+        Function transformed = new Affine(antiderivative, scaleX, scaleY * scaleX, shiftX, 0);
+        if (shiftY == 0) {
+            return transformed;
+        }
+        return new Sum(transformed, new Const(shiftY).getAntiderivative());
+    }
+
+    public Function getOriginal() {
+        return original;
+    }
+
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    public double getShiftX() {
+        return shiftX;
+    }
+
+    public double getShiftY() {
+        return shiftY;
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain() {
+        return fixedDomain;
+    }
+}
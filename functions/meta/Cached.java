@@ -0,0 +1,227 @@
+package functions.meta;
+
+import functions.Function;
+import functions.Functions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ограниченный потокобезопасный кэш значений функции. Ключ - биты аргумента (long), без упаковки в Double.
+// Кэш разбит на сегменты со своими блокировками; внутри сегмента открытая адресация с линейным
+// пробированием и вытеснение по алгоритму CLOCK. Значение вычисляется вне блокировки, поэтому
+// при одновременном промахе по одному аргументу функция может быть вычислена дважды.
+// Изменения исходной табулированной функции кэш не отслеживает: после них его нужно очистить (clear)
+public class Cached implements Function {
+    private static final int MIN_SEGMENT_CAPACITY = 256;
+
+    private final Function original;
+    private final int capacity;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final boolean fixedDomain;
+
+    public Cached(Function original, int capacity) {
+        if (original == null) {
+            throw new IllegalArgumentException("Исходная функция не может быть null");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость кэша должна быть положительной");
+        }
+        this.original = original;
+        this.fixedDomain = Functions.hasFixedDomain(original);
+        this.capacity = capacity;
+
+        // Число сегментов - степень двойки, до 4 сегментов на процессор. Ёмкость делится между сегментами
+        // поровну, поэтому сегмент должен быть достаточно большим, чтобы неравномерность хэшей не вытесняла
+        // записи при заполненности кэша заметно меньше capacity
+        int wanted = Math.max(1, Math.min(capacity / MIN_SEGMENT_CAPACITY, 4 * Runtime.getRuntime().availableProcessors()));
+        int count = Integer.highestOneBit(wanted);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    public double getLeftDomainBorder() {
+        return original.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return original.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        long key = Double.doubleToLongBits(x);
+        long hash = mix(key);
+        Segment segment = segments[(int) hash & (segments.length - 1)];
+        int home = (int) (hash >>> 32);
+
+        synchronized (segment) {
+            int slot = segment.find(key, home);
+            if (slot >= 0) {
+                hits.increment();
+                segment.referenced[slot] = true;
+                return segment.values[slot];
+            }
+        }
+
+        misses.increment();
+        double value = original.getFunctionValue(x);
+        synchronized (segment) {
+            if (segment.find(key, home) < 0) {
+                segment.insert(key, home, value);
+            }
+        }
+        return value;
+    }
+
+    public Function getAntiderivative() {
+        return original.getAntiderivative();
+    }
+
+    public Function getOriginal() {
+        return original;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    // Перемешивание битов (финализатор MurmurHash3): младшие биты выбирают сегмент, старшие - позицию в таблице
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // Сегмент кэша: записи хранятся в параллельных массивах, таблица table хранит номер записи + 1 (0 - пусто)
+    private static final class Segment {
+        private final int capacity;
+        private final long[] keys;
+        private final int[] homes;
+        private final double[] values;
+        private final boolean[] referenced;
+        private final int[] table;
+        private final int mask;
+        private int size;
+        private int hand;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.keys = new long[capacity];
+            this.homes = new int[capacity];
+            this.values = new double[capacity];
+            this.referenced = new boolean[capacity];
+            this.table = new int[Integer.highestOneBit(Math.max(capacity, 1)) * 4];
+            this.mask = table.length - 1;
+        }
+
+        // Номер записи с ключом key или -1
+        int find(long key, int home) {
+            for (int i = home & mask; table[i] != 0; i = (i + 1) & mask) {
+                int slot = table[i] - 1;
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void insert(long key, int home, double value) {
+            int slot;
+            if (size < capacity) {
+                slot = size++;
+            } else {
+                // CLOCK: стрелка снимает бит обращения, пока не найдёт запись без него
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % capacity;
+                }
+                slot = hand;
+                hand = (hand + 1) % capacity;
+                remove(slot);
+            }
+
+            keys[slot] = key;
+            homes[slot] = home;
+            values[slot] = value;
+            referenced[slot] = false; // Бит ставится при первом повторном обращении
+            int i = home & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = slot + 1;
+        }
+
+        // Удаление из таблицы со сдвигом последующих элементов цепочки, чтобы не оставлять "дыр"
+        private void remove(int slot) {
+            int i = homes[slot] & mask;
+            while (table[i] != slot + 1) {
+                i = (i + 1) & mask;
+            }
+
+            int j = i;
+            while (true) {
+                table[i] = 0;
+                while (true) {
+                    j = (j + 1) & mask;
+                    if (table[j] == 0) {
+                        return;
+                    }
+                    int k = homes[table[j] - 1] & mask;
+                    // Элемент из j можно перенести в i, если его начальная позиция k не лежит циклически в (i; j]
+                    boolean stays = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+                    if (!stays) {
+                        break;
+                    }
+                }
+                table[i] = table[j];
+                i = j;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            Arrays.fill(referenced, false);
+            size = 0;
+            hand = 0;
+        }
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain() {
+        return fixedDomain;
+    }
+}
@@ -1,10 +1,18 @@
 package functions.meta;
 
 import functions.Function;
+import functions.Functions;
+
+import java.util.Arrays;
 
 public class Composition implements Function{
-    private Function outer;
-    private Function inner;
+    private final Function outer;
+    private final Function inner;
+    private final double left;
+    private final double right;
+    private final double outerLeft;
+    private final double outerRight;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
 
     public Composition(Function outer, Function inner) {
         if (outer == null || inner == null) {
@@ -12,14 +20,19 @@ public class Composition implements Function{
         }
         this.outer = outer;
         this.inner = inner;
+        this.fixedDomain = Functions.hasFixedDomain(outer) && Functions.hasFixedDomain(inner);
+        this.left = inner.getLeftDomainBorder();
+        this.right = inner.getRightDomainBorder();
+        this.outerLeft = outer.getLeftDomainBorder();
+        this.outerRight = outer.getRightDomainBorder();
     }
 
     public double getLeftDomainBorder() {
-        return inner.getLeftDomainBorder();
+        return fixedDomain ? left : inner.getLeftDomainBorder();
     }
 
     public double getRightDomainBorder() {
-        return inner.getRightDomainBorder();
+        return fixedDomain ? right : inner.getRightDomainBorder();
     }
 
     public double getFunctionValue(double x) {
@@ -33,10 +46,50 @@ public class Composition implements Function{
             return Double.NaN;
         }
 
-        if (innerValue < outer.getLeftDomainBorder() || innerValue > outer.getRightDomainBorder()) {
+        if (fixedDomain ? innerValue < outerLeft || innerValue > outerRight
+                : innerValue < outer.getLeftDomainBorder() || innerValue > outer.getRightDomainBorder()) {
             return Double.NaN;
         }
 
         return outer.getFunctionValue(innerValue);
     }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        int n = to - from;
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        double outerLeft = fixedDomain ? this.outerLeft : outer.getLeftDomainBorder();
+        double outerRight = fixedDomain ? this.outerRight : outer.getRightDomainBorder();
+
+        // Значения внутренней функции становятся аргументами внешней
+        double[] args = from == 0 ? xs : Arrays.copyOfRange(xs, from, to);
+        double[] innerValues = new double[n];
+        double[] outerValues = new double[n];
+        inner.getFunctionValues(args, innerValues, 0, n);
+        outer.getFunctionValues(innerValues, outerValues, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            double x = xs[from + i];
+            double innerValue = innerValues[i];
+            if (x < left || x > right || Double.isNaN(innerValue)
+                    || innerValue < outerLeft || innerValue > outerRight) {
+                out[from + i] = Double.NaN;
+            } else {
+                out[from + i] = outerValues[i];
+            }
+        }
+    }
+
+    public Function getOuter() {
+        return outer;
+    }
+
+    public Function getInner() {
+        return inner;
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain(){
+        return fixedDomain;
+    }
 }
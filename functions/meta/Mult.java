@@ -1,10 +1,17 @@
 package functions.meta;
 
 import functions.Function;
+import functions.Functions;
+import functions.basic.Const;
+
+import java.util.Arrays;
 
 public class Mult implements Function{
-    private Function f1;
-    private Function f2;
+    private final Function f1;
+    private final Function f2;
+    private final double left;
+    private final double right;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
 
     public Mult(Function f1, Function f2){
         if (f1 == null || f2 == null){
@@ -12,14 +19,17 @@ public class Mult implements Function{
         }
         this.f1 = f1;
         this.f2 = f2;
+        this.fixedDomain = Functions.hasFixedDomain(f1) && Functions.hasFixedDomain(f2);
+        this.left = Math.max(f1.getLeftDomainBorder(), f2.getLeftDomainBorder());
+        this.right = Math.min(f1.getRightDomainBorder(), f2.getRightDomainBorder());
     }
 
     public double getLeftDomainBorder(){
-        return Math.max(f1.getLeftDomainBorder(), f2.getLeftDomainBorder());
+        return fixedDomain ? left : Math.max(f1.getLeftDomainBorder(), f2.getLeftDomainBorder());
     }
 
     public double getRightDomainBorder(){
-        return Math.min(f1.getRightDomainBorder(), f2.getRightDomainBorder());
+        return fixedDomain ? right : Math.min(f1.getRightDomainBorder(), f2.getRightDomainBorder());
     }
 
     public double getFunctionValue(double x){
@@ -35,4 +45,59 @@ public class Mult implements Function{
 
         return value1 * value2;
     }
+
+    // Первообразная известна только для произведения на константу: c * F(x)
+    public Function getAntiderivative(){
+        if (f1 instanceof Const){
+            return constantMultiple(((Const) f1).getValue(), f2);
+        }
+        if (f2 instanceof Const){
+            return constantMultiple(((Const) f2).getValue(), f1);
+        }
+        return null;
+    }
+
+    private static Function constantMultiple(double factor, Function f){
+        Function antiderivative = f.getAntiderivative();
+        if (antiderivative == null){
+            return null;
+        }
+        return new Scale(antiderivative, 1, factor);
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        int n = to - from;
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+
+        // Значения первой функции пишем сразу в out, второй - во временный массив
+        double[] args = from == 0 ? xs : Arrays.copyOfRange(xs, from, to);
+        double[] values2 = new double[n];
+        f1.getFunctionValues(xs, out, from, to);
+        f2.getFunctionValues(args, values2, 0, n);
+
+        for (int i = 0; i < n; i++){
+            double x = xs[from + i];
+            double value1 = out[from + i];
+            double value2 = values2[i];
+            if (x < left || x > right || Double.isNaN(value1) || Double.isNaN(value2)){
+                out[from + i] = Double.NaN;
+            } else {
+                out[from + i] = value1 * value2;
+            }
+        }
+    }
+
+    public Function getFirst(){
+        return f1;
+    }
+
+    public Function getSecond(){
+        return f2;
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain(){
+        return fixedDomain;
+    }
 }
@@ -0,0 +1,307 @@
+package functions.meta;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+// Постоянное хранилище значений функций (отпечаток функции, x) -> y, переживающее перезапуск.
+// Данные лежат в двух файлах, отображаемых в память:
+//   <имя>.dat - журнал записей (long отпечаток, long биты x, double y), только дописывается;
+//   <имя>.idx - заголовок и хэш-таблица с открытой адресацией: номер записи + 1 (0 - пусто).
+// Количество записей в заголовке журнала увеличивается после записи самой записи, поэтому незавершённая
+// запись при сбое отбрасывается. Индекс всегда можно восстановить по журналу: если он не соответствует
+// журналу, он перестраивается при открытии. Файлы блокируются на время работы одного процесса.
+// Значения NaN не сохраняются: вне области определения функции они вычисляются без затрат.
+// Чтение не блокируется: запись сохраняется целиком до того, как её номер публикуется в индексе
+// (release/acquire), а файлы никогда не укорачиваются под действующими отображениями - журнал растёт,
+// а перестроенная таблица индекса размещается в файле после прежней, которую ещё могут читать
+public class PersistentCache implements Closeable {
+    private static final int DATA_MAGIC = 0x46434441; // "FCDA"
+    private static final int INDEX_MAGIC = 0x46434932; // "FCI2"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    // Заголовок индекса: сигнатура, ёмкость таблицы, число записей, смещение таблицы в файле
+    private static final int INDEX_HEADER_SIZE = 24;
+    private static final int RECORD_SIZE = 24;
+    private static final int INITIAL_RECORDS = 1024;
+    // Журнал отображается одним буфером, а он ограничен 2 ГБ
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    // Доступ к ячейкам индекса с упорядочиванием памяти; порядок байтов - как у MappedByteBuffer по умолчанию
+    private static final VarHandle INDEX_ENTRY = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final RandomAccessFile dataFile;
+    private final RandomAccessFile indexFile;
+    private final FileLock lock;
+    // Поля ниже меняются только под монитором писателя
+    private MappedByteBuffer data;
+    private MappedByteBuffer indexHeader;
+    private MappedByteBuffer indexTable;
+    private long indexOffset;
+    private int indexCapacity;
+    private int indexMask;
+    private volatile int count;
+    // Отображения для читателей; null после закрытия
+    private volatile Tables tables;
+
+    // Согласованные журнал и таблица индекса, по которым ищут читатели
+    private static final class Tables {
+        final MappedByteBuffer data;
+        final MappedByteBuffer index;
+        final int mask;
+
+        Tables(MappedByteBuffer data, MappedByteBuffer index, int mask) {
+            this.data = data;
+            this.index = index;
+            this.mask = mask;
+        }
+    }
+
+    // Открытие или создание хранилища: файлы path.dat и path.idx
+    public PersistentCache(File path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Файл не может быть null");
+        }
+
+        this.dataFile = new RandomAccessFile(new File(path.getPath() + ".dat"), "rw");
+        this.indexFile = new RandomAccessFile(new File(path.getPath() + ".idx"), "rw");
+        try {
+            this.lock = tryLock(dataFile.getChannel());
+            if (lock == null) {
+                throw new IOException("Файл кэша используется другим процессом: " + path);
+            }
+            openData();
+            openIndex();
+        } catch (IOException | RuntimeException e) {
+            dataFile.close();
+            indexFile.close();
+            throw e;
+        }
+    }
+
+    // Блокировка файла или null, если он уже открыт другим процессом или в этой JVM
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private void openData() throws IOException {
+        if (dataFile.length() < HEADER_SIZE) {
+            mapData(HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE);
+            data.putInt(0, DATA_MAGIC);
+            data.putInt(4, VERSION);
+            data.putLong(8, 0);
+            count = 0;
+            return;
+        }
+
+        mapData(dataFile.length());
+        if (data.getInt(0) != DATA_MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Файл не является журналом кэша значений функций");
+        }
+        long storedCount = data.getLong(8);
+        if (storedCount < 0 || HEADER_SIZE + storedCount * RECORD_SIZE > data.capacity()) {
+            throw new IOException("Повреждён заголовок журнала кэша: " + storedCount + " записей");
+        }
+        count = (int) storedCount;
+    }
+
+    private void openIndex() throws IOException {
+        long length = indexFile.length();
+        if (length < INDEX_HEADER_SIZE) {
+            indexFile.setLength(INDEX_HEADER_SIZE);
+            length = INDEX_HEADER_SIZE;
+        }
+        indexHeader = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE);
+
+        int capacity = indexHeader.getInt(4);
+        long offset = indexHeader.getLong(16);
+        boolean valid = indexHeader.getInt(0) == INDEX_MAGIC
+                && capacity > 0 && Integer.bitCount(capacity) == 1
+                && offset >= INDEX_HEADER_SIZE && offset + 4L * capacity <= length
+                && indexHeader.getLong(8) == count;
+        if (valid) {
+            indexOffset = offset;
+            indexCapacity = capacity;
+            indexMask = capacity - 1;
+            indexTable = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, offset, 4L * capacity);
+            tables = new Tables(data, indexTable, indexMask);
+            return;
+        }
+        // Других отображений таблицы пока нет, поэтому её можно строить с начала файла
+        rebuildIndex(INDEX_HEADER_SIZE, Math.max(Integer.highestOneBit(Math.max(count, 1)) * 4, 2 * INITIAL_RECORDS));
+    }
+
+    // Журнал только растёт: прежние отображения остаются действительными
+    private void mapData(long size) throws IOException {
+        if (size > dataFile.length()) {
+            dataFile.setLength(size);
+        }
+        data = dataFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    // Построение таблицы индекса с новой ёмкостью (степень двойки, заполнение не больше половины)
+    // в области файла, начиная с offset; файл при необходимости удлиняется, но не укорачивается
+    private void rebuildIndex(long offset, int capacity) throws IOException {
+        long end = offset + 4L * capacity;
+        if (end > indexFile.length()) {
+            indexFile.setLength(end);
+        }
+        MappedByteBuffer table = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, offset, 4L * capacity);
+        for (int i = 0; i < capacity; i++) {
+            table.putInt(4 * i, 0);
+        }
+        int mask = capacity - 1;
+        for (int record = 0; record < count; record++) {
+            int position = HEADER_SIZE + record * RECORD_SIZE;
+            insertIndex(table, mask, record, slot(data.getLong(position), data.getLong(position + 8), mask));
+        }
+
+        indexTable = table;
+        indexOffset = offset;
+        indexCapacity = capacity;
+        indexMask = mask;
+        indexHeader.putInt(0, INDEX_MAGIC);
+        indexHeader.putInt(4, capacity);
+        indexHeader.putLong(8, count);
+        indexHeader.putLong(16, offset);
+        tables = new Tables(data, indexTable, indexMask);
+    }
+
+    private static long hash(long fingerprint, long xBits) {
+        long h = fingerprint * 0x9e3779b97f4a7c15L ^ xBits;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int slot(long fingerprint, long xBits, int mask) {
+        return (int) hash(fingerprint, xBits) & mask;
+    }
+
+    // Номер записи публикуется с release-семантикой: прочитавший его читатель видит и саму запись
+    private static void insertIndex(MappedByteBuffer table, int mask, int record, int slot) {
+        while ((int) INDEX_ENTRY.getAcquire(table, 4 * slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        INDEX_ENTRY.setRelease(table, 4 * slot, record + 1);
+    }
+
+    // Значение функции с отпечатком fingerprint в точке x или NaN, если оно не сохранено.
+    // Не берёт монитор писателя: читатели не мешают друг другу и не ждут записи
+    public double get(long fingerprint, double x) {
+        long xBits = Double.doubleToLongBits(x);
+        while (true) {
+            Tables t = tables;
+            if (t == null) {
+                throw new IllegalStateException("Кэш закрыт");
+            }
+            long position = find(t, fingerprint, xBits);
+            if (position == NOT_FOUND) {
+                return Double.NaN;
+            }
+            if (position != STALE) {
+                return t.data.getDouble((int) position + 16);
+            }
+            // Журнал успел вырасти после чтения отображений: берём новые
+        }
+    }
+
+    private static final long NOT_FOUND = -1;
+    private static final long STALE = -2;
+
+    // Смещение записи в журнале, NOT_FOUND или STALE, если номер записи лежит за пределами этого отображения журнала
+    private static long find(Tables t, long fingerprint, long xBits) {
+        for (int slot = slot(fingerprint, xBits, t.mask); ; slot = (slot + 1) & t.mask) {
+            int entry = (int) INDEX_ENTRY.getAcquire(t.index, 4 * slot);
+            if (entry == 0) {
+                return NOT_FOUND;
+            }
+            long position = HEADER_SIZE + (long) (entry - 1) * RECORD_SIZE;
+            if (position + RECORD_SIZE > t.data.capacity()) {
+                return STALE;
+            }
+            int p = (int) position;
+            if (t.data.getLong(p) == fingerprint && t.data.getLong(p + 8) == xBits) {
+                return position;
+            }
+        }
+    }
+
+    // Сохранение значения; повторное сохранение той же точки и значения NaN игнорируются
+    public synchronized void put(long fingerprint, double x, double y) throws IOException {
+        checkOpen();
+        if (Double.isNaN(y) || !Double.isNaN(get(fingerprint, x))) {
+            return;
+        }
+        if (count == MAX_RECORDS) {
+            throw new IOException("Журнал кэша заполнен: " + MAX_RECORDS + " записей");
+        }
+
+        long end = HEADER_SIZE + (long) (count + 1) * RECORD_SIZE;
+        if (end > data.capacity()) {
+            mapData(Math.min(HEADER_SIZE + 2L * data.capacity(), HEADER_SIZE + (long) MAX_RECORDS * RECORD_SIZE));
+            // Новое отображение журнала публикуется раньше номеров записей, которые в него попадут
+            tables = new Tables(data, indexTable, indexMask);
+        }
+
+        int position = HEADER_SIZE + count * RECORD_SIZE;
+        data.putLong(position, fingerprint);
+        data.putLong(position + 8, Double.doubleToLongBits(x));
+        data.putDouble(position + 16, y);
+        count++;
+        data.putLong(8, count);
+
+        if (2L * count > indexCapacity) {
+            // Прежнюю таблицу ещё могут читать, поэтому новая строится за ней
+            rebuildIndex(indexOffset + 4L * indexCapacity, indexCapacity * 2);
+        } else {
+            insertIndex(indexTable, indexMask, count - 1, slot(fingerprint, Double.doubleToLongBits(x), indexMask));
+            indexHeader.putLong(8, count);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Сброс изменённых страниц на диск
+    public synchronized void flush() {
+        checkOpen();
+        data.force();
+        indexHeader.force();
+        indexTable.force();
+    }
+
+    public synchronized void close() throws IOException {
+        if (data == null) {
+            return;
+        }
+        flush();
+        // Отображения освобождаются сборщиком мусора; читатели, успевшие взять их, дочитают безопасно
+        tables = null;
+        data = null;
+        indexHeader = null;
+        indexTable = null;
+        lock.release();
+        dataFile.close();
+        indexFile.close();
+    }
+
+    private void checkOpen() {
+        if (data == null) {
+            throw new IllegalStateException("Кэш закрыт");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package functions.meta;
+
+import functions.Function;
+import functions.Functions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Функция, значения которой берутся из постоянного кэша по структурному отпечатку исходной функции.
+// После перезапуска уже вычисленные точки читаются из файла без вычисления функции.
+// Отпечаток вычисляется при создании, поэтому табулированную функцию лучше передавать
+// через TabulatedFunctions.snapshot: после изменения исходной таблицы кэш выдавал бы прежние значения
+public class PersistentCached implements Function {
+    private final Function original;
+    private final PersistentCache cache;
+    private final long fingerprint;
+    private final boolean fixedDomain;
+
+    public PersistentCached(Function original, PersistentCache cache) {
+        if (original == null) {
+            throw new IllegalArgumentException("Исходная функция не может быть null");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("Кэш не может быть null");
+        }
+        this.original = original;
+        this.fixedDomain = Functions.hasFixedDomain(original);
+        this.cache = cache;
+        this.fingerprint = Functions.fingerprint(original);
+    }
+
+    public double getLeftDomainBorder() {
+        return original.getLeftDomainBorder();
+    }
+
+    public double getRightDomainBorder() {
+        return original.getRightDomainBorder();
+    }
+
+    public double getFunctionValue(double x) {
+        double value = cache.get(fingerprint, x);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+
+        value = original.getFunctionValue(x);
+        try {
+            cache.put(fingerprint, x, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return value;
+    }
+
+    public Function getAntiderivative() {
+        return original.getAntiderivative();
+    }
+
+    public Function getOriginal() {
+        return original;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain() {
+        return fixedDomain;
+    }
+}
@@ -1,10 +1,14 @@
 package functions.meta;
 
 import functions.Function;
+import functions.Functions;
 
 public class Power implements Function {
-    private Function baseFunction;
-    private double power;
+    private final Function baseFunction;
+    private final double power;
+    private final double left;
+    private final double right;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
 
     public Power(Function baseFunction, double power){
         if (baseFunction == null){
@@ -12,14 +16,17 @@ public class Power implements Function {
         }
         this.baseFunction = baseFunction;
         this.power = power;
+        this.fixedDomain = Functions.hasFixedDomain(baseFunction);
+        this.left = baseFunction.getLeftDomainBorder();
+        this.right = baseFunction.getRightDomainBorder();
     }
 
     public double getLeftDomainBorder(){
-        return baseFunction.getLeftDomainBorder();
+        return fixedDomain ? left : baseFunction.getLeftDomainBorder();
     }
 
     public double getRightDomainBorder(){
-        return baseFunction.getRightDomainBorder();
+        return fixedDomain ? right : baseFunction.getRightDomainBorder();
     }
 
     public double getFunctionValue(double x){
@@ -27,8 +34,21 @@ public class Power implements Function {
             return Double.NaN;
         }
 
-        double baseValue = baseFunction.getFunctionValue(x);
+        return raise(baseFunction.getFunctionValue(x));
+    }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        baseFunction.getFunctionValues(xs, out, from, to);
+        for (int i = from; i < to; i++){
+            double x = xs[i];
+            out[i] = (x < left || x > right) ? Double.NaN : raise(out[i]);
+        }
+    }
 
+    // Возведение значения базовой функции в степень с проверкой допустимости
+    private double raise(double baseValue){
         if (Double.isNaN(baseValue)){
             return Double.NaN;
         }
@@ -44,7 +64,16 @@ public class Power implements Function {
         return Math.pow(baseValue, power);
     }
 
+    public Function getBaseFunction(){
+        return baseFunction;
+    }
+
     public double getPower(){
         return power;
     }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain() {
+        return fixedDomain;
+    }
 }
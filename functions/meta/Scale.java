@@ -1,11 +1,17 @@
 package functions.meta;
 
 import functions.Function;
+import functions.Functions;
 
 public class Scale implements Function {
-    private Function original;
-    private double scaleX;
-    private double scaleY;
+    private final Function original;
+    private final double scaleX;
+    private final double scaleY;
+    private final double left;
+    private final double right;
+    private final double originalLeft;
+    private final double originalRight;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
 
     public Scale(Function original, double scaleX, double scaleY){
         if (original == null){
@@ -16,42 +22,31 @@ public class Scale implements Function {
         }
 
         this.original = original;
+        this.fixedDomain = Functions.hasFixedDomain(original);
         this.scaleX = scaleX;
         this.scaleY = scaleY;
+
+        // При отрицательном scaleX границы меняются местами; бесконечная граница остаётся бесконечной нужного знака
+        this.originalLeft = original.getLeftDomainBorder();
+        this.originalRight = original.getRightDomainBorder();
+        this.left = (scaleX > 0 ? originalLeft : originalRight) * scaleX;
+        this.right = (scaleX > 0 ? originalRight : originalLeft) * scaleX;
     }
 
     public double getLeftDomainBorder(){
-        double left = original.getLeftDomainBorder();
-        if (Double.isInfinite(left)){
-            return left;
-        }
-
-        if (scaleX > 0){
-            return left * scaleX;
-        } else {
-            double right = original.getRightDomainBorder();
-            if (Double.isInfinite(right)){
-                return -Double.POSITIVE_INFINITY;
-            }
-            return right * scaleX;
-        }
+        return fixedDomain ? left : (scaleX > 0 ? originalLeft() : originalRight()) * scaleX;
     }
 
     public double getRightDomainBorder(){
-        double right = original.getRightDomainBorder();
-        if (Double.isInfinite(right)){
-            return right;
-        }
+        return fixedDomain ? right : (scaleX > 0 ? originalRight() : originalLeft()) * scaleX;
+    }
 
-        if (scaleX > 0){
-            return right * scaleX;
-        } else {
-            double left = original.getLeftDomainBorder();
-            if (Double.isInfinite(left)){
-                return -Double.POSITIVE_INFINITY;
-            }
-            return left * scaleX;
-        }
+    private double originalLeft(){
+        return fixedDomain ? originalLeft : original.getLeftDomainBorder();
+    }
+
+    private double originalRight(){
+        return fixedDomain ? originalRight : original.getRightDomainBorder();
     }
 
     public double getFunctionValue(double x){
@@ -61,7 +56,7 @@ public class Scale implements Function {
 
         double originalX = x / scaleX;
 
-        if (originalX < original.getLeftDomainBorder() || originalX > original.getRightDomainBorder()){
+        if (originalX < originalLeft() || originalX > originalRight()){
             return Double.NaN;
         }
 
@@ -74,6 +69,19 @@ public class Scale implements Function {
         return scaleY * originalValue;
     }
 
+    // Первообразная scaleY * scaleX * F(x / scaleX), если у исходной функции есть первообразная F
+    public Function getAntiderivative(){
+        Function antiderivative = original.getAntiderivative();
+        if (antiderivative == null){
+            return null;
+        }
+        return new Scale(antiderivative, scaleX, scaleY * scaleX);
+    }
+
+    public Function getOriginal(){
+        return original;
+    }
+
     public double getScaleX(){
         return scaleX;
     }
@@ -81,4 +89,35 @@ public class Scale implements Function {
     public double getScaleY(){
         return scaleY;
     }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to){
+        int n = to - from;
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        double originalLeft = originalLeft();
+        double originalRight = originalRight();
+
+        double[] originalXs = new double[n];
+        for (int i = 0; i < n; i++){
+            originalXs[i] = xs[from + i] / scaleX;
+        }
+        double[] originalValues = new double[n];
+        original.getFunctionValues(originalXs, originalValues, 0, n);
+
+        for (int i = 0; i < n; i++){
+            double x = xs[from + i];
+            double originalX = originalXs[i];
+            if (x < left || x > right || originalX < originalLeft || originalX > originalRight
+                    || Double.isNaN(originalValues[i])){
+                out[from + i] = Double.NaN;
+            } else {
+                out[from + i] = scaleY * originalValues[i];
+            }
+        }
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain(){
+        return fixedDomain;
+    }
 }
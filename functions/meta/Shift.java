@@ -1,35 +1,49 @@
 package functions.meta;
 
 import functions.Function;
+import functions.Functions;
+import functions.basic.Const;
 
 public class Shift implements Function{
-    private Function original;
-    private double shiftX;
-    private double shiftY;
+    private final Function original;
+    private final double shiftX;
+    private final double shiftY;
+    private final double left;
+    private final double right;
+    private final double originalLeft;
+    private final double originalRight;
+    private final boolean fixedDomain; // false - границы перечитываются при каждом вызове
 
     public Shift(Function original, double shiftX, double shiftY){
         if (original == null){
             throw new IllegalArgumentException("Исходная функция не может быть null");
         }
         this.original = original;
+        this.fixedDomain = Functions.hasFixedDomain(original);
         this.shiftX = shiftX;
         this.shiftY = shiftY;
+
+        // Бесконечная граница при сдвиге остаётся бесконечной
+        this.originalLeft = original.getLeftDomainBorder();
+        this.originalRight = original.getRightDomainBorder();
+        this.left = originalLeft + shiftX;
+        this.right = originalRight + shiftX;
     }
 
     public double getLeftDomainBorder() {
-        double left = original.getLeftDomainBorder();
-        if (Double.isInfinite(left)) {
-            return left;
-        }
-        return left + shiftX;
+        return fixedDomain ? left : originalLeft() + shiftX;
     }
 
     public double getRightDomainBorder() {
-        double right = original.getRightDomainBorder();
-        if (Double.isInfinite(right)) {
-            return right;
-        }
-        return right + shiftX;
+        return fixedDomain ? right : originalRight() + shiftX;
+    }
+
+    private double originalLeft() {
+        return fixedDomain ? originalLeft : original.getLeftDomainBorder();
+    }
+
+    private double originalRight() {
+        return fixedDomain ? originalRight : original.getRightDomainBorder();
     }
 
     public double getFunctionValue(double x) {
@@ -39,7 +53,7 @@ public class Shift implements Function{
 
         double originalX = x - shiftX;
 
-        if (originalX < original.getLeftDomainBorder() || originalX > original.getRightDomainBorder()) {
+        if (originalX < originalLeft() || originalX > originalRight()) {
             return Double.NaN;
         }
 
@@ -52,6 +66,24 @@ public class Shift implements Function{
         return originalValue + shiftY;
     }
 
+    // Первообразная F(x - shiftX) + shiftY * x, если у исходной функции есть первообразная F
+    public Function getAntiderivative() {
+        Function antiderivative = original.getAntiderivative();
+        if (antiderivative == null) {
+            return null;
+        }
+
+        Function shifted = new Shift(antiderivative, shiftX, 0);
+        if (shiftY == 0) {
+            return shifted;
+        }
+        return new Sum(shifted, new Const(shiftY).getAntiderivative());
+    }
+
+    public Function getOriginal() {
+        return original;
+    }
+
     public double getShiftX() {
         return shiftX;
     }
@@ -59,4 +91,35 @@ public class Shift implements Function{
     public double getShiftY() {
         return shiftY;
     }
+
+    public void getFunctionValues(double[] xs, double[] out, int from, int to) {
+        int n = to - from;
+        double left = getLeftDomainBorder();
+        double right = getRightDomainBorder();
+        double originalLeft = originalLeft();
+        double originalRight = originalRight();
+
+        double[] originalXs = new double[n];
+        for (int i = 0; i < n; i++) {
+            originalXs[i] = xs[from + i] - shiftX;
+        }
+        double[] originalValues = new double[n];
+        original.getFunctionValues(originalXs, originalValues, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            double x = xs[from + i];
+            double originalX = originalXs[i];
+            if (x < left || x > right || originalX < originalLeft || originalX > originalRight
+                    || Double.isNaN(originalValues[i])) {
+                out[from + i] = Double.NaN;
+            } else {
+                out[from + i] = originalValues[i] + shiftY;
+            }
+        }
+    }
+
+    // false, если в поддереве есть изменяемая табулированная функция (см. Functions.hasFixedDomain)
+    public boolean hasFixedDomain(){
+        return fixedDomain;
+    }
 }
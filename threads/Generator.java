@@ -4,8 +4,12 @@ import functions.Function;
 import functions.basic.Log;
 
 public class Generator extends Thread {
+    // Сколько задач генератор публикует в кольцевой буфер одной пачкой
+    private static final int BATCH_SIZE = 64;
+
     private final Task task;
     private final ReadWriteSemaphore semaphore;
+    private final TaskRingBuffer buffer;
 
     public Generator(Task task, ReadWriteSemaphore semaphore) {
         if (task == null || semaphore == null) {
@@ -13,54 +17,43 @@ public class Generator extends Thread {
         }
         this.task = task;
         this.semaphore = semaphore;
+        this.buffer = null;
+        this.setName("Generator-Thread");
+    }
+
+    // Генератор, передающий задачи через кольцевой буфер: ни одна задача не перезаписывается,
+    // а при заполненном буфере генератор ждёт потребителей. По завершении генератор закрывает буфер,
+    // поэтому в этом режиме он должен быть единственным производителем
+    public Generator(Task task, TaskRingBuffer buffer) {
+        if (task == null || buffer == null) {
+            throw new IllegalArgumentException("Аргументы не могут быть null");
+        }
+        this.task = task;
+        this.semaphore = null;
+        this.buffer = buffer;
         this.setName("Generator-Thread");
     }
 
     public void run() {
+        if (buffer != null) {
+            runWithBuffer();
+            return;
+        }
+
         try {
             int taskCount = task.getTaskCount();
 
             for (int i = 0; i < taskCount && !isInterrupted(); i++) {
-                // Создаем логарифмическую функцию со случайным основанием от 1 до 10
-                double base = 1.0 + Math.random() * 9.0;
-                if (Math.abs(base - 1.0) < 1e-10) {
-                    base = 1.5;
-                }
-                Function logFunction = new Log(base);
-
-                // Левая граница области интегрирования (от 0 до 100)
-                double leftBorder = Math.random() * 100.0;
-
-                // Правая граница области интегрирования (от 100 до 200)
-                double rightBorder = 100.0 + Math.random() * 100.0;
-
-                // Убедимся, что левая граница меньше правой
-                if (leftBorder >= rightBorder) {
-                    double temp = leftBorder;
-                    leftBorder = rightBorder;
-                    rightBorder = temp;
-                }
-
-                // Проверяем, что левая граница > 0
-                if (leftBorder <= 0) {
-                    leftBorder = 0.1;
-                }
-
-                // Шаг дискретизации (от 0 до 1, но > 0)
-                double step = Math.random();
-                if (step <= 0) {
-                    step = 0.01;
-                }
+                Task.TaskData taskData = generateTaskData();
 
                 // Захватываем семафор для записи
                 semaphore.lockWrite();
                 try {
                     // Атомарно устанавливаем все параметры
-                    task.setAll(logFunction, leftBorder, rightBorder, step);
+                    task.setAll(taskData.function, taskData.leftBorder, taskData.rightBorder, taskData.step);
 
                     // Выводим сообщение о параметрах задачи
-                    System.out.printf("%s: Source %.4f %.4f %.4f (основание: %.4f, задача %d/%d)%n",
-                            getName(), leftBorder, rightBorder, step, base, i + 1, taskCount);
+                    printSource(taskData, i + 1, taskCount);
 
                 } finally {
                     // Всегда освобождаем семафор
@@ -88,4 +81,82 @@ public class Generator extends Thread {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // Задачи генерируются пачками и публикуются в буфер одним захватом ячеек; пауза не нужна
+    private void runWithBuffer() {
+        try {
+            int taskCount = task.getTaskCount();
+            Task.TaskData[] batch = new Task.TaskData[BATCH_SIZE];
+
+            int generated = 0;
+            while (generated < taskCount && !isInterrupted()) {
+                int count = Math.min(BATCH_SIZE, taskCount - generated);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = generateTaskData();
+                }
+                buffer.putAll(batch, 0, count);
+                for (int i = 0; i < count; i++) {
+                    printSource(batch[i], generated + i + 1, taskCount);
+                }
+                generated += count;
+            }
+
+            if (!isInterrupted()) {
+                System.out.printf("%s: Все %d задач сгенерированы%n", getName(), taskCount);
+            } else {
+                System.out.printf("%s: Прервано после генерации %d задач%n", getName(), generated);
+            }
+
+        } catch (InterruptedException e) {
+            System.out.printf("%s: Поток был прерван во время работы%n", getName());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.printf("%s: Ошибка - %s%n", getName(), e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Потребители дочитают опубликованные задачи и завершатся
+            buffer.close();
+        }
+    }
+
+    static Task.TaskData generateTaskData() {
+        // Создаем логарифмическую функцию со случайным основанием от 1 до 10
+        double base = 1.0 + Math.random() * 9.0;
+        if (Math.abs(base - 1.0) < 1e-10) {
+            base = 1.5;
+        }
+        Function logFunction = new Log(base);
+
+        // Левая граница области интегрирования (от 0 до 100)
+        double leftBorder = Math.random() * 100.0;
+
+        // Правая граница области интегрирования (от 100 до 200)
+        double rightBorder = 100.0 + Math.random() * 100.0;
+
+        // Убедимся, что левая граница меньше правой
+        if (leftBorder >= rightBorder) {
+            double temp = leftBorder;
+            leftBorder = rightBorder;
+            rightBorder = temp;
+        }
+
+        // Проверяем, что левая граница > 0
+        if (leftBorder <= 0) {
+            leftBorder = 0.1;
+        }
+
+        // Шаг дискретизации (от 0 до 1, но > 0)
+        double step = Math.random();
+        if (step <= 0) {
+            step = 0.01;
+        }
+
+        return new Task.TaskData(logFunction, leftBorder, rightBorder, step);
+    }
+
+    private void printSource(Task.TaskData taskData, int number, int taskCount) {
+        System.out.printf("%s: Source %.4f %.4f %.4f (основание: %.4f, задача %d/%d)%n",
+                getName(), taskData.leftBorder, taskData.rightBorder, taskData.step,
+                ((Log) taskData.function).getBase(), number, taskCount);
+    }
+}
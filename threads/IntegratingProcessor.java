@@ -0,0 +1,203 @@
+package threads;
+
+import functions.Functions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Стадия Flow, интегрирующая каждую задачу через Functions.integrate. Очереди нет: стадия запрашивает
+// у источника ровно столько задач, сколько запросил её подписчик, поэтому отставание потребителя
+// останавливает генерацию, а память не зависит от скорости источника. Ошибка интегрирования
+// одной задачи не обрывает поток: она передаётся в результате. Подписчик может быть только один
+public class IntegratingProcessor implements Flow.Processor<Task.TaskData, IntegratingProcessor.Result> {
+    private final AtomicLong processedCount = new AtomicLong();
+    private Flow.Subscription upstream;
+    private boolean hasSubscriber = false;
+    private long pendingDemand = 0; // Спрос подписчика, пришедший до подписки на источник
+    private boolean cancelled = false;
+
+    // Все сигналы подписчику проходят через очередь и выдаются одним потоком раздачи (drain), поэтому
+    // они не пересекаются, а до возврата из onSubscribe подписчик ничего не получает. Результатов
+    // в очереди не больше, чем запросил подписчик
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Flow.Subscriber<? super Result> downstream; // Появляется после возврата из onSubscribe
+    private volatile boolean completed = false;
+    private volatile Throwable error;
+    private volatile boolean terminated = false; // Завершающий сигнал выдан или подписка отменена
+
+    // Результат интегрирования задачи
+    public static class Result {
+        public final Task.TaskData taskData;
+        public final double value;  // NaN, если интегрирование не удалось
+        public final String error;  // null при успехе
+
+        Result(Task.TaskData taskData, double value, String error) {
+            this.taskData = taskData;
+            this.value = value;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public void subscribe(Flow.Subscriber<? super Result> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Подписчик не может быть null");
+        }
+        boolean rejected;
+        synchronized (this) {
+            rejected = hasSubscriber;
+            hasSubscriber = true;
+        }
+        if (rejected) {
+            subscriber.onSubscribe(new EmptySubscription());
+            subscriber.onError(new IllegalStateException("У стадии интегрирования уже есть подписчик"));
+            return;
+        }
+
+        subscriber.onSubscribe(new DownstreamSubscription());
+        downstream = subscriber;
+        // Источник мог завершиться до появления подписчика или пока шёл onSubscribe
+        drain();
+    }
+
+    public void onSubscribe(Flow.Subscription subscription) {
+        long demand;
+        boolean cancel;
+        synchronized (this) {
+            cancel = upstream != null || cancelled;
+            if (upstream == null) {
+                upstream = subscription;
+            }
+            demand = pendingDemand;
+            pendingDemand = 0;
+        }
+        if (cancel) {
+            subscription.cancel();
+        } else if (demand > 0) {
+            subscription.request(demand);
+        }
+    }
+
+    public void onNext(Task.TaskData taskData) {
+        Result result;
+        try {
+            double value = Functions.integrate(taskData.function, taskData.leftBorder, taskData.rightBorder, taskData.step);
+            result = new Result(taskData, value, null);
+        } catch (IllegalArgumentException e) {
+            result = new Result(taskData, Double.NaN, e.getMessage());
+        }
+        processedCount.incrementAndGet();
+        results.add(result);
+        drain();
+    }
+
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    public void onComplete() {
+        completed = true;
+        drain();
+    }
+
+    // Сохраняется только первая ошибка
+    private void fail(Throwable throwable) {
+        synchronized (this) {
+            if (error == null) {
+                error = throwable;
+            }
+        }
+        drain();
+    }
+
+    // Раздача накопленных сигналов: её выполняет один поток, остальные только увеличивают счётчик.
+    // Результаты выдаются раньше завершающего сигнала
+    private void drain() {
+        if (pending.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super Result> subscriber = downstream;
+            if (subscriber != null) {
+                Result result;
+                while (!terminated && (result = results.poll()) != null) {
+                    subscriber.onNext(result);
+                }
+                if (!terminated && results.isEmpty() && (error != null || completed)) {
+                    terminated = true;
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
+            if (terminated) {
+                results.clear();
+            }
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    // Спрос подписчика передаётся источнику один к одному
+    private final class DownstreamSubscription implements Flow.Subscription {
+        public void request(long n) {
+            if (n <= 0) {
+                // Ошибка выдаётся через ту же раздачу, что и результаты; ожидающие результаты отбрасываются
+                results.clear();
+                cancelUpstream();
+                fail(new IllegalArgumentException("Запрошено неположительное число результатов: " + n));
+                return;
+            }
+            Flow.Subscription subscription;
+            synchronized (IntegratingProcessor.this) {
+                if (cancelled) {
+                    return;
+                }
+                subscription = upstream;
+                if (subscription == null) {
+                    pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+                    return;
+                }
+            }
+            subscription.request(n);
+        }
+
+        public void cancel() {
+            terminated = true;
+            cancelUpstream();
+            drain();
+        }
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription;
+        synchronized (this) {
+            cancelled = true;
+            subscription = upstream;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private static final class EmptySubscription implements Flow.Subscription {
+        public void request(long n) {
+        }
+
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package threads;
+
+import functions.Functions;
+import functions.TabulatedFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Пул интеграторов с перехватом работы. У каждого рабочего потока своя двусторонняя очередь:
+// владелец берёт работу с конца (последнюю добавленную), а простаивающие потоки забирают её с начала
+// чужих очередей. Задача с большим числом шагов делится на части по SPLIT_SEGMENTS отрезков сетки:
+// поток делит диапазон частей пополам, правую половину кладёт в свою очередь и продолжает с левой,
+// поэтому крупные половины достаются другим потокам. Части складываются в порядке номеров,
+// так что результат не зависит от того, какой поток что посчитал
+public class IntegrationPool {
+    // Сколько отрезков сетки интегрирования приходится на одну часть задачи
+    private static final long SPLIT_SEGMENTS = 1 << 16;
+    private static final int MAX_PIECES = 1 << 20;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_WORKERS = 1 << 10;
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private volatile boolean shutdown = false;
+
+    public IntegrationPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public IntegrationPool(int workerCount) {
+        if (workerCount <= 0 || workerCount > MAX_WORKERS) {
+            throw new IllegalArgumentException("Число рабочих потоков должно быть от 1 до " + MAX_WORKERS);
+        }
+        workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    // Асинхронное интегрирование задачи; при ошибке результат завершается исключением
+    // (IllegalArgumentException из Functions.integrate или ошибкой, выброшенной функцией)
+    public CompletableFuture<Double> submit(Task.TaskData taskData) {
+        if (taskData == null || taskData.function == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Пул остановлен");
+        }
+
+        Integration integration = new Integration(taskData);
+        // Внешние задачи раздаются очередям по кругу
+        Worker worker = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+        Job job = new Job(integration, 0, integration.parts.length);
+        worker.deque.addLast(job);
+        // Пул могли остановить между проверкой и добавлением. Если задачу ещё не забрал рабочий поток,
+        // её уже некому выполнить: она снимается, а результат завершается ошибкой
+        if (shutdown && worker.deque.removeLastOccurrence(job)) {
+            integration.future.completeExceptionally(new IllegalStateException("Пул остановлен"));
+            return integration.future;
+        }
+        LockSupport.unpark(worker);
+        return integration.future;
+    }
+
+    // Передаёт в пул все задачи из буфера, пока он не закрыт и не опустошён
+    public List<CompletableFuture<Double>> submitAll(TaskRingBuffer buffer) throws InterruptedException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Буфер не может быть null");
+        }
+        List<CompletableFuture<Double>> futures = new ArrayList<>();
+        Task.TaskData[] batch = new Task.TaskData[64];
+        int count;
+        while ((count = buffer.takeAll(batch, 0, batch.length)) > 0) {
+            for (int i = 0; i < count; i++) {
+                futures.add(submit(batch[i]));
+                batch[i] = null;
+            }
+        }
+        return futures;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    // Число завершённых задач по рабочим потокам: задача засчитывается потоку, досчитавшему её последнюю часть
+    public long[] getProcessedCounts() {
+        long[] counts = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            counts[i] = workers[i].processed;
+        }
+        return counts;
+    }
+
+    public long getProcessedCount() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.processed;
+        }
+        return total;
+    }
+
+    // Сколько частей задач было перехвачено из чужих очередей
+    public long getStolenCount() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.stolen;
+        }
+        return total;
+    }
+
+    // Новые задачи не принимаются; уже отправленные досчитываются
+    public void shutdown() {
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, left);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Будит один простаивающий поток, чтобы он перехватил появившуюся работу
+    private void signalIdle(Worker self) {
+        for (Worker worker : workers) {
+            if (worker != self && worker.idle) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    // Задача и суммы её частей
+    private static final class Integration {
+        final Task.TaskData taskData;
+        final CompletableFuture<Double> future = new CompletableFuture<>();
+        final double pieceLength;
+        final double[] parts;
+        final AtomicInteger pending;
+
+        Integration(Task.TaskData taskData) {
+            this.taskData = taskData;
+            double length = taskData.rightBorder - taskData.leftBorder;
+            // Интегралы по первообразной и табулированных функций вычисляются сразу, их делить незачем
+            boolean splittable = taskData.step > 0 && length > 0 && !Double.isInfinite(length)
+                    && !(taskData.function instanceof TabulatedFunction)
+                    && taskData.function.getAntiderivative() == null;
+            long segmentsPerPiece = SPLIT_SEGMENTS;
+            long pieces = 1;
+            if (splittable) {
+                long segments = countSegments(taskData.leftBorder, taskData.rightBorder, taskData.step);
+                segmentsPerPiece = Math.max(SPLIT_SEGMENTS, (segments + MAX_PIECES - 1) / MAX_PIECES);
+                pieces = Math.max(1, (segments + segmentsPerPiece - 1) / segmentsPerPiece);
+            }
+            // Границы частей лежат на сетке с шагом step; последняя часть должна начинаться левее rightBorder,
+            // иначе её интегрирование получило бы пустой отрезок
+            this.pieceLength = segmentsPerPiece * taskData.step;
+            while (pieces > 1 && taskData.leftBorder + (pieces - 1) * pieceLength >= taskData.rightBorder) {
+                pieces--;
+            }
+            this.parts = new double[(int) pieces];
+            this.pending = new AtomicInteger((int) pieces);
+        }
+
+        // Число отрезков сетки так же, как в Functions.countSegments: ceil((right - left) / step) с поправкой
+        // на погрешность деления, чтобы последний узел перед rightBorder лежал строго левее него
+        private static long countSegments(double leftBorder, double rightBorder, double step) {
+            long segments = Math.max(1, (long) Math.ceil((rightBorder - leftBorder) / step));
+            while (segments > 1 && leftBorder + (segments - 1) * step >= rightBorder) {
+                segments--;
+            }
+            while (leftBorder + segments * step < rightBorder) {
+                segments++;
+            }
+            return segments;
+        }
+
+        double integratePiece(int piece) {
+            if (parts.length == 1) {
+                return Functions.integrate(taskData.function, taskData.leftBorder, taskData.rightBorder, taskData.step);
+            }
+            double left = taskData.leftBorder + piece * pieceLength;
+            double right = piece == parts.length - 1
+                    ? taskData.rightBorder
+                    : taskData.leftBorder + (piece + 1) * pieceLength;
+            return Functions.integrate(taskData.function, left, right, taskData.step);
+        }
+
+        // true, если досчитана последняя часть: тогда задачу завершает вызвавший поток
+        boolean complete(int piece, double value) {
+            parts[piece] = value;
+            return pending.decrementAndGet() == 0;
+        }
+
+        // true только для первой ошибки: остальные части задачи уже не нужны
+        boolean fail() {
+            return pending.getAndSet(0) > 0;
+        }
+
+        double sum() {
+            double integral = 0.0;
+            for (double part : parts) {
+                integral += part;
+            }
+            return integral;
+        }
+    }
+
+    // Диапазон частей [firstPiece; lastPiece) одной задачи
+    private static final class Job {
+        final Integration integration;
+        final int firstPiece;
+        final int lastPiece;
+
+        Job(Integration integration, int firstPiece, int lastPiece) {
+            this.integration = integration;
+            this.firstPiece = firstPiece;
+            this.lastPiece = lastPiece;
+        }
+    }
+
+    private final class Worker extends Thread {
+        final ConcurrentLinkedDeque<Job> deque = new ConcurrentLinkedDeque<>();
+        final int index;
+        // Счётчики меняет только сам поток
+        volatile long processed = 0;
+        volatile long stolen = 0;
+        volatile boolean idle = false;
+
+        Worker(int index) {
+            this.index = index;
+            setName("Integrator-Worker-" + index);
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (true) {
+                Job job = deque.pollLast();
+                if (job == null) {
+                    job = steal();
+                }
+                if (job != null) {
+                    execute(job);
+                    continue;
+                }
+                // После остановки поток завершается, только убедившись, что задач не осталось: задача,
+                // добавленная до того, как submit увидел остановку, должна быть выполнена
+                if (shutdown) {
+                    if (!hasWork()) {
+                        return;
+                    }
+                    continue;
+                }
+                idle = true;
+                // Повторная проверка после объявления о простое: задача могла появиться до этого
+                if (!hasWork()) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+
+        // Обход чужих очередей со случайного места
+        private Job steal() {
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim != this) {
+                    Job job = victim.deque.pollFirst();
+                    if (job != null) {
+                        stolen++;
+                        return job;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean hasWork() {
+            for (Worker worker : workers) {
+                if (!worker.deque.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void execute(Job job) {
+            Integration integration = job.integration;
+            // Части задачи, уже завершённой с ошибкой, не считаются
+            if (integration.future.isDone()) {
+                return;
+            }
+            int first = job.firstPiece;
+            int last = job.lastPiece;
+            while (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                deque.addLast(new Job(integration, middle, last));
+                signalIdle(this);
+                last = middle;
+            }
+
+            // Счётчик увеличивается до завершения задачи, чтобы дождавшийся результата видел его учтённым.
+            // Ошибка любого рода (в том числе StackOverflowError из функции) передаётся в результат задачи:
+            // иначе поток завершился бы молча, а результат не был бы получен никогда. Стек к этому моменту
+            // уже свёрнут, поэтому поток продолжает работу со своей очередью
+            try {
+                if (integration.complete(first, integration.integratePiece(first))) {
+                    processed++;
+                    integration.future.complete(integration.sum());
+                }
+            } catch (Throwable e) {
+                if (integration.fail()) {
+                    processed++;
+                    integration.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
@@ -3,8 +3,12 @@ package threads;
 import functions.Functions;
 
 public class Integrator extends Thread {
+    // Сколько задач интегратор забирает из кольцевого буфера одной пачкой
+    private static final int BATCH_SIZE = 64;
+
     private final Task task;
     private final ReadWriteSemaphore semaphore;
+    private final TaskRingBuffer buffer;
     private int processedCount = 0;
 
     public Integrator(Task task, ReadWriteSemaphore semaphore) {
@@ -13,10 +17,28 @@ public class Integrator extends Thread {
         }
         this.task = task;
         this.semaphore = semaphore;
+        this.buffer = null;
+        this.setName("Integrator-Thread");
+    }
+
+    // Интегратор, получающий задачи из кольцевого буфера: каждая задача обрабатывается ровно один раз,
+    // работа заканчивается, когда буфер закрыт и пуст. Интеграторов на одном буфере может быть несколько
+    public Integrator(Task task, TaskRingBuffer buffer) {
+        if (task == null || buffer == null) {
+            throw new IllegalArgumentException("Аргументы не могут быть null");
+        }
+        this.task = task;
+        this.semaphore = null;
+        this.buffer = buffer;
         this.setName("Integrator-Thread");
     }
 
     public void run() {
+        if (buffer != null) {
+            runWithBuffer();
+            return;
+        }
+
         try {
             int taskCount = task.getTaskCount();
 
@@ -32,27 +54,7 @@ public class Integrator extends Thread {
                         continue;
                     }
 
-                    // Вычисляем значение интеграла
-                    double integralResult;
-                    try {
-                        integralResult = Functions.integrate(
-                                taskData.function,
-                                taskData.leftBorder,
-                                taskData.rightBorder,
-                                taskData.step
-                        );
-
-                        processedCount++;
-
-                        // Выводим результат
-                        System.out.printf("%s: Result %.4f %.4f %.4f %.8f (обработано %d/%d)%n",
-                                getName(), taskData.leftBorder, taskData.rightBorder,
-                                taskData.step, integralResult, processedCount, taskCount);
-
-                    } catch (IllegalArgumentException e) {
-                        System.out.printf("%s: Ошибка интегрирования - %s%n", getName(), e.getMessage());
-                        processedCount++;
-                    }
+                    process(taskData, taskCount);
 
                 } finally {
                     // Всегда освобождаем семафор
@@ -78,7 +80,60 @@ public class Integrator extends Thread {
         }
     }
 
+    // Задачи забираются пачками; ожидание пустого буфера - без фиксированной паузы
+    private void runWithBuffer() {
+        try {
+            int taskCount = task.getTaskCount();
+            Task.TaskData[] batch = new Task.TaskData[BATCH_SIZE];
+
+            int count;
+            while (!isInterrupted() && (count = buffer.takeAll(batch, 0, BATCH_SIZE)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    process(batch[i], taskCount);
+                    batch[i] = null;
+                }
+            }
+
+            if (!isInterrupted()) {
+                System.out.printf("%s: Буфер закрыт, обработано %d задач%n", getName(), processedCount);
+            } else {
+                System.out.printf("%s: Прервано после обработки %d задач%n", getName(), processedCount);
+            }
+
+        } catch (InterruptedException e) {
+            System.out.printf("%s: Поток был прерван во время работы%n", getName());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.printf("%s: Критическая ошибка - %s%n", getName(), e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Вычисление интеграла задачи и вывод результата
+    private void process(Task.TaskData taskData, int taskCount) {
+        double integralResult;
+        try {
+            integralResult = Functions.integrate(
+                    taskData.function,
+                    taskData.leftBorder,
+                    taskData.rightBorder,
+                    taskData.step
+            );
+
+            processedCount++;
+
+            // Выводим результат
+            System.out.printf("%s: Result %.4f %.4f %.4f %.8f (обработано %d/%d)%n",
+                    getName(), taskData.leftBorder, taskData.rightBorder,
+                    taskData.step, integralResult, processedCount, taskCount);
+
+        } catch (IllegalArgumentException e) {
+            System.out.printf("%s: Ошибка интегрирования - %s%n", getName(), e.getMessage());
+            processedCount++;
+        }
+    }
+
     public int getProcessedCount() {
         return processedCount;
     }
-}
\ No newline at end of file
+}
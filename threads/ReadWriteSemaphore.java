@@ -1,45 +1,254 @@
 package threads;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Семафор читателей-писателей с предпочтением писателей. Читатели считаются в нескольких счётчиках
+// (полосах) на разных строках кэша: поток всегда попадает в свою полосу, поэтому захват и освобождение
+// чтения - одна атомарная операция без общего монитора. Число читателей - сумма по полосам; её
+// просматривает только писатель. Читатель сначала увеличивает свою полосу, потом проверяет заявки
+// писателей, а писатель сначала подаёт заявку, потом проверяет полосы, поэтому кто-то из них
+// обязательно видит другого. Пока есть заявка писателя, новые читатели ждут, так что писатели
+// не голодают. Потоки ждут сначала вращением, затем на условиях блокировки; будятся только
+// припаркованные потоки и только те, кто может продолжить
 public class ReadWriteSemaphore {
-    private int readers = 0;
-    private int writers = 0;
-    private int writeRequests = 0;
+    // Расстояние между полосами в long: 128 байт с учётом предвыборки соседней строки
+    private static final int STRIPE_SPACING = 16;
+    private static final int MAX_STRIPES = 64;
+    private static final int SPIN_TRIES = 64;
+
+    private final int stripeMask;
+    private final AtomicLongArray readers;
+    private final AtomicInteger writeRequests = new AtomicInteger(); // Ожидающие писатели и активный писатель
+    private final AtomicInteger writers = new AtomicInteger();       // 1, пока запись захвачена
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readable = lock.newCondition();
+    private final Condition writable = lock.newCondition();
+    // Число припаркованных потоков; меняется только под lock
+    private volatile int parkedReaders = 0;
+    private volatile int parkedWriters = 0;
+
+    public ReadWriteSemaphore() {
+        int stripes = Integer.highestOneBit(Math.max(1, 2 * Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        stripes = Math.min(stripes, MAX_STRIPES);
+        this.stripeMask = stripes - 1;
+        this.readers = new AtomicLongArray((stripes + 1) * STRIPE_SPACING);
+    }
+
+    // Полоса потока определяется его идентификатором, перемешанным, чтобы соседние номера не совпадали
+    private int stripeIndex() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (h >>> 32) & stripeMask) * STRIPE_SPACING + STRIPE_SPACING;
+    }
 
-    public synchronized void lockRead() throws InterruptedException {
-        while (writers > 0 || writeRequests > 0) {
-            wait();
+    private long readerCount() {
+        long count = 0;
+        for (int i = 0; i <= stripeMask; i++) {
+            count += readers.get((i + 1) * STRIPE_SPACING);
         }
-        readers++;
+        return count;
     }
 
-    public synchronized void unlockRead() {
-        readers--;
-        notifyAll();
+    public void lockRead() throws InterruptedException {
+        if (!tryAcquireRead()) {
+            acquireRead(false, 0);
+        }
     }
 
-    public synchronized void lockWrite() throws InterruptedException {
-        writeRequests++;
+    // Захват чтения без ожидания
+    public boolean tryLockRead() {
+        return tryAcquireRead();
+    }
+
+    // Захват чтения с ожиданием не дольше timeout; false, если время вышло
+    public boolean tryLockRead(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryAcquireRead() || acquireRead(true, unit.toNanos(timeout));
+    }
 
-        while (readers > 0 || writers > 0) {
-            wait();
+    public void unlockRead() {
+        readers.getAndDecrement(stripeIndex());
+        // Писатель может ждать, пока уйдут читатели
+        if (writeRequests.get() > 0) {
+            signalWriters();
         }
+    }
+
+    private boolean tryAcquireRead() {
+        if (writeRequests.get() > 0) {
+            return false;
+        }
+        int index = stripeIndex();
+        readers.getAndIncrement(index);
+        if (writeRequests.get() == 0) {
+            return true;
+        }
+        // Писатель подал заявку одновременно с нами: уступаем ему
+        readers.getAndDecrement(index);
+        signalWriters();
+        return false;
+    }
 
-        writeRequests--;
-        writers++;
+    private boolean acquireRead(boolean timed, long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long deadline = System.nanoTime() + nanos;
+        for (int i = 0; i < SPIN_TRIES; i++) {
+            if (tryAcquireRead()) {
+                return true;
+            }
+            if (timed && deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+
+        lock.lockInterruptibly();
+        try {
+            parkedReaders++;
+            try {
+                while (!tryAcquireRead()) {
+                    if (!timed) {
+                        readable.await();
+                    } else {
+                        nanos = deadline - System.nanoTime();
+                        if (nanos <= 0) {
+                            return false;
+                        }
+                        readable.awaitNanos(nanos);
+                    }
+                }
+                return true;
+            } finally {
+                parkedReaders--;
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void unlockWrite() {
-        writers--;
-        notifyAll();
+    public void lockWrite() throws InterruptedException {
+        acquireWrite(false, 0);
+    }
+
+    // Захват записи без ожидания
+    public boolean tryLockWrite() {
+        writeRequests.incrementAndGet();
+        if (writers.compareAndSet(0, 1)) {
+            if (readerCount() == 0) {
+                return true;
+            }
+            writers.set(0);
+        }
+        releaseWriteRequest();
+        return false;
+    }
+
+    // Захват записи с ожиданием не дольше timeout; false, если время вышло
+    public boolean tryLockWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        return acquireWrite(true, unit.toNanos(timeout));
+    }
+
+    public void unlockWrite() {
+        writers.set(0);
+        releaseWriteRequest();
+    }
+
+    // Писатель занимает запись, затем ждёт, пока уйдут читатели; пока он ждёт, новые читатели не входят
+    private boolean acquireWrite(boolean timed, long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        writeRequests.incrementAndGet();
+        boolean owner = false;
+        boolean acquired = false;
+        try {
+            long deadline = System.nanoTime() + nanos;
+            for (int i = 0; i < SPIN_TRIES; i++) {
+                owner = owner || writers.compareAndSet(0, 1);
+                if (owner && readerCount() == 0) {
+                    acquired = true;
+                    return true;
+                }
+                if (timed && deadline - System.nanoTime() <= 0) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+
+            lock.lockInterruptibly();
+            try {
+                parkedWriters++;
+                try {
+                    while (true) {
+                        owner = owner || writers.compareAndSet(0, 1);
+                        if (owner && readerCount() == 0) {
+                            acquired = true;
+                            return true;
+                        }
+                        if (!timed) {
+                            writable.await();
+                        } else {
+                            nanos = deadline - System.nanoTime();
+                            if (nanos <= 0) {
+                                return false;
+                            }
+                            writable.awaitNanos(nanos);
+                        }
+                    }
+                } finally {
+                    parkedWriters--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            // Время вышло или поток прерван: снимаем заявку и отдаём занятую запись
+            if (!acquired) {
+                if (owner) {
+                    writers.set(0);
+                }
+                releaseWriteRequest();
+            }
+        }
+    }
+
+    // Следующим получает доступ ожидающий писатель, а если заявок больше нет - все ожидающие читатели
+    private void releaseWriteRequest() {
+        int remaining = writeRequests.decrementAndGet();
+        if (remaining > 0) {
+            signalWriters();
+        } else if (parkedReaders > 0) {
+            lock.lock();
+            try {
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void signalWriters() {
+        if (parkedWriters > 0) {
+            lock.lock();
+            try {
+                writable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     // Метод для проверки, можно ли читать
-    public synchronized boolean canRead() {
-        return writers == 0 && writeRequests == 0;
+    public boolean canRead() {
+        return writeRequests.get() == 0;
     }
 
     // Метод для проверки, можно ли писать
-    public synchronized boolean canWrite() {
-        return readers == 0 && writers == 0;
+    public boolean canWrite() {
+        return writers.get() == 0 && readerCount() == 0;
     }
 }
@@ -0,0 +1,67 @@
+package threads;
+
+import functions.Functions;
+import functions.basic.Log;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Конвейер генерации и интегрирования в структурной области задач: производитель выполняется в одном
+// потоке области и для каждой сгенерированной задачи запускает интегрирование в отдельном потоке.
+// На виртуальных потоках так можно одновременно держать тысячи интегрирований, ожидающих ввода-вывода
+// внутри функций. Прерывание потока, вызвавшего run, отменяет и производителя, и все интегрирования
+public class ScopedPipeline {
+    private final Task task;
+    private final boolean virtualThreads;
+    private final AtomicInteger processedCount = new AtomicInteger();
+
+    // virtualThreads - использовать виртуальные потоки, если они поддерживаются JVM
+    public ScopedPipeline(Task task, boolean virtualThreads) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        this.task = task;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public void run() throws InterruptedException {
+        int taskCount = task.getTaskCount();
+        try (TaskScope scope = new TaskScope(virtualThreads)) {
+            System.out.printf("Pipeline: %d задач на %s потоках%n", taskCount, scope.isVirtual() ? "виртуальных" : "обычных");
+
+            scope.fork(() -> {
+                for (int i = 0; i < taskCount && !Thread.currentThread().isInterrupted(); i++) {
+                    Task.TaskData taskData = Generator.generateTaskData();
+                    System.out.printf("Generator: Source %.4f %.4f %.4f (основание логарифма: %.4f)%n",
+                            taskData.leftBorder, taskData.rightBorder, taskData.step,
+                            ((Log) taskData.function).getBase());
+                    scope.fork(() -> integrate(taskData, taskCount));
+                }
+            });
+
+            scope.join();
+            scope.throwIfFailed();
+        }
+        System.out.printf("Pipeline: обработано %d/%d задач%n", processedCount.get(), taskCount);
+    }
+
+    private void integrate(Task.TaskData taskData, int taskCount) {
+        try {
+            double integralResult = Functions.integrate(
+                    taskData.function,
+                    taskData.leftBorder,
+                    taskData.rightBorder,
+                    taskData.step
+            );
+            System.out.printf("Integrator: Result %.4f %.4f %.4f %.8f (обработано %d/%d)%n",
+                    taskData.leftBorder, taskData.rightBorder, taskData.step,
+                    integralResult, processedCount.incrementAndGet(), taskCount);
+        } catch (IllegalArgumentException e) {
+            processedCount.incrementAndGet();
+            System.out.printf("Integrator: Ошибка интегрирования - %s%n", e.getMessage());
+        }
+    }
+
+    public int getProcessedCount() {
+        return processedCount.get();
+    }
+}
@@ -0,0 +1,108 @@
+package threads;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Генератор задач как источник java.util.concurrent.Flow. Каждый подписчик получает свою
+// последовательность из taskCount случайных задач, как у Generator, но задача создаётся только
+// под запрошенный спрос (request): если потребитель отстаёт, генерация стоит и ничего не копится.
+// Сигналы подписчику выдаются последовательно в потоках исполнителя
+public class TaskPublisher implements Flow.Publisher<Task.TaskData> {
+    private final int taskCount;
+    private final Executor executor;
+
+    public TaskPublisher(int taskCount) {
+        this(taskCount, ForkJoinPool.commonPool());
+    }
+
+    public TaskPublisher(int taskCount, Executor executor) {
+        if (taskCount < 0) {
+            throw new IllegalArgumentException("Количество задач не может быть отрицательным");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Исполнитель не может быть null");
+        }
+        this.taskCount = taskCount;
+        this.executor = executor;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void subscribe(Flow.Subscriber<? super Task.TaskData> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Подписчик не может быть null");
+        }
+        TaskSubscription subscription = new TaskSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        // Пустая последовательность завершается без запроса
+        if (taskCount == 0) {
+            subscription.schedule();
+        }
+    }
+
+    private final class TaskSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Task.TaskData> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // Число необработанных сигналов: раздачу выполняет один поток, остальные лишь увеличивают счётчик
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean done = false;
+        private volatile IllegalArgumentException requestError;
+        private int produced = 0; // Меняется только в потоке раздачи
+
+        TaskSubscription(Flow.Subscriber<? super Task.TaskData> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Запрошено неположительное число задач: " + n);
+            } else {
+                // Спрос складывается с насыщением на Long.MAX_VALUE
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        public void cancel() {
+            done = true;
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    done = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done && requestError != null) {
+                    done = true;
+                    subscriber.onError(requestError);
+                }
+                while (!done && produced < taskCount && demand.get() > 0) {
+                    Task.TaskData taskData = Generator.generateTaskData();
+                    produced++;
+                    demand.decrementAndGet();
+                    subscriber.onNext(taskData);
+                }
+                if (!done && produced == taskCount) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
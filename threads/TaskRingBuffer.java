@@ -0,0 +1,249 @@
+package threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+// Ограниченная неблокирующая очередь задач для нескольких производителей и потребителей (схема Вьюкова).
+// У каждой ячейки есть счётчик последовательности: ячейка свободна для записи с номером pos, когда
+// счётчик равен pos, и готова к чтению, когда он равен pos + 1. Производители и потребители занимают
+// номера CAS-ом на своих счётчиках tail и head, поэтому каждая задача доставляется ровно один раз.
+// Счётчики и ячейки разнесены по разным строкам кэша, чтобы потоки не мешали друг другу (false sharing).
+// Ожидание в блокирующих методах: короткое вращение, затем уступка процессора, затем парковка
+public class TaskRingBuffer {
+    // Расстояние между счётчиками соседних ячеек в long: 128 байт с учётом предвыборки соседней строки
+    private static final int SEQUENCE_SPACING = 16;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Task.TaskData[] items;
+    private final PaddedCounter tail = new PaddedCounter(); // Следующий номер для записи
+    private final PaddedCounter head = new PaddedCounter(); // Следующий номер для чтения
+    private volatile boolean closed = false;
+
+    // Ёмкость округляется вверх до степени двойки
+    public TaskRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("Ёмкость буфера должна быть от 1 до " + (1 << 26));
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.items = new Task.TaskData[this.capacity];
+        this.sequences = new AtomicLongArray((this.capacity + 1) * SEQUENCE_SPACING);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(sequenceIndex(i), i);
+        }
+    }
+
+    private int sequenceIndex(long position) {
+        return (int) ((position & mask) + 1) * SEQUENCE_SPACING;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Приблизительное число задач в буфере
+    public int size() {
+        long size = tail.value - head.value;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    // После закрытия запись запрещена, а потребители дочитывают оставшиеся задачи
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Неблокирующая запись; false, если буфер полон
+    public boolean offer(Task.TaskData item) {
+        checkItem(item);
+        return claim(new Task.TaskData[] {item}, 0, 1) == 1;
+    }
+
+    // Неблокирующая запись подряд идущих задач items[from; to) с одним CAS на всю пачку.
+    // Возвращает число записанных задач (первые из пачки), 0 - если буфер полон
+    public int offerAll(Task.TaskData[] items, int from, int to) {
+        checkItems(items, from, to);
+        return claim(items, from, to);
+    }
+
+    private int claim(Task.TaskData[] items, int from, int to) {
+        if (closed) {
+            throw new IllegalStateException("Буфер закрыт");
+        }
+        while (from < to) {
+            long position = tail.value;
+            // Сколько ячеек подряд свободно для номеров position, position + 1, ...
+            int free = 0;
+            int wanted = Math.min(to - from, capacity);
+            while (free < wanted && sequences.get(sequenceIndex(position + free)) == position + free) {
+                free++;
+            }
+            if (free == 0) {
+                if (sequences.get(sequenceIndex(position)) < position) {
+                    return 0; // Ячейку ещё не освободил потребитель: буфер полон
+                }
+                continue; // Номер уже занят другим производителем
+            }
+            if (tail.compareAndSet(position, position + free)) {
+                for (int i = 0; i < free; i++) {
+                    this.items[(int) ((position + i) & mask)] = items[from + i];
+                    // Публикация: запись задачи видна потребителю, прочитавшему счётчик
+                    sequences.lazySet(sequenceIndex(position + i), position + i + 1);
+                }
+                return free;
+            }
+        }
+        return 0;
+    }
+
+    // Блокирующая запись: ждёт свободной ячейки
+    public void put(Task.TaskData item) throws InterruptedException {
+        putAll(new Task.TaskData[] {item}, 0, 1);
+    }
+
+    // Блокирующая запись всех задач items[from; to) пачками
+    public void putAll(Task.TaskData[] items, int from, int to) throws InterruptedException {
+        checkItems(items, from, to);
+        int idle = 0;
+        while (from < to) {
+            int written = claim(items, from, to);
+            if (written > 0) {
+                from += written;
+                idle = 0;
+            } else {
+                idle = pause(idle);
+            }
+        }
+    }
+
+    // Неблокирующее чтение; null, если буфер пуст
+    public Task.TaskData poll() {
+        Task.TaskData[] out = new Task.TaskData[1];
+        return pollAll(out, 0, 1) == 1 ? out[0] : null;
+    }
+
+    // Неблокирующее чтение до to - from задач в out[from; to) с одним CAS на пачку; возвращает их число
+    public int pollAll(Task.TaskData[] out, int from, int to) {
+        checkRange(out, from, to);
+        while (true) {
+            long position = head.value;
+            int ready = 0;
+            int wanted = Math.min(to - from, capacity);
+            while (ready < wanted && sequences.get(sequenceIndex(position + ready)) == position + ready + 1) {
+                ready++;
+            }
+            if (ready == 0) {
+                if (sequences.get(sequenceIndex(position)) <= position) {
+                    return 0; // Производитель ещё не опубликовал задачу: буфер пуст
+                }
+                continue; // Номер уже забрал другой потребитель
+            }
+            if (head.compareAndSet(position, position + ready)) {
+                for (int i = 0; i < ready; i++) {
+                    int slot = (int) ((position + i) & mask);
+                    out[from + i] = items[slot];
+                    items[slot] = null;
+                    // Освобождение ячейки для записи на следующем круге
+                    sequences.lazySet(sequenceIndex(position + i), position + i + capacity);
+                }
+                return ready;
+            }
+        }
+    }
+
+    // Блокирующее чтение; null, если буфер закрыт и все задачи прочитаны
+    public Task.TaskData take() throws InterruptedException {
+        Task.TaskData[] out = new Task.TaskData[1];
+        return takeAll(out, 0, 1) == 1 ? out[0] : null;
+    }
+
+    // Блокирующее чтение хотя бы одной задачи; 0, если буфер закрыт и все задачи прочитаны
+    public int takeAll(Task.TaskData[] out, int from, int to) throws InterruptedException {
+        checkRange(out, from, to);
+        if (from == to) {
+            return 0;
+        }
+        int idle = 0;
+        while (true) {
+            int read = pollAll(out, from, to);
+            if (read > 0) {
+                return read;
+            }
+            if (closed) {
+                // Задачи, опубликованные до закрытия, видны после чтения флага
+                read = pollAll(out, from, to);
+                if (read > 0 || tail.value == head.value) {
+                    return read;
+                }
+            }
+            idle = pause(idle);
+        }
+    }
+
+    private static int pause(int idle) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+
+    private static void checkItem(Task.TaskData item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+    }
+
+    private static void checkItems(Task.TaskData[] items, int from, int to) {
+        checkRange(items, from, to);
+        for (int i = from; i < to; i++) {
+            checkItem(items[i]);
+        }
+    }
+
+    private static void checkRange(Task.TaskData[] array, int from, int to) {
+        if (array == null) {
+            throw new IllegalArgumentException("Массив задач не может быть null");
+        }
+        if (from < 0 || to > array.length || from > to) {
+            throw new IllegalArgumentException("Некорректный диапазон [" + from + "; " + to + ")");
+        }
+    }
+
+    // Счётчик, отделённый от соседних полей 64 байтами с каждой стороны. Поля суперкласса располагаются
+    // в объекте раньше полей подкласса, поэтому заполнители не переставляются вокруг value
+    private static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class Counter extends LeftPadding {
+        private static final AtomicLongFieldUpdater<Counter> UPDATER =
+                AtomicLongFieldUpdater.newUpdater(Counter.class, "value");
+
+        volatile long value;
+
+        boolean compareAndSet(long expected, long updated) {
+            return UPDATER.compareAndSet(this, expected, updated);
+        }
+    }
+
+    private static final class PaddedCounter extends Counter {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+}
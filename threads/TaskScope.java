@@ -0,0 +1,221 @@
+package threads;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Структурная область задач: каждая задача получает свой поток, область не закрывается, пока
+// не завершены все её задачи. Первая ошибка отменяет остальные задачи (прерыванием их потоков),
+// прерывание владельца во время join - тоже. Виртуальные потоки (Java 21+) подключаются через
+// отражение; если их нет, используются обычные потоки-демоны
+public class TaskScope implements AutoCloseable {
+    private static final Callable<ExecutorService> VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+    private static final AtomicInteger SCOPE_NUMBER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet(); // Незавершённые задачи
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile boolean shutdown = false;
+
+    // virtualThreads - запросить виртуальные потоки; при их отсутствии область работает на обычных
+    public TaskScope(boolean virtualThreads) {
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : Executors.newCachedThreadPool(platformThreadFactory());
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor(), если он есть и включён (в Java 19-20 - только с --enable-preview)
+    private static Callable<ExecutorService> findVirtualExecutorFactory() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            Callable<ExecutorService> factory = () -> (ExecutorService) method.invoke(null);
+            factory.call().shutdown();
+            return factory;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newVirtualExecutor() {
+        if (VIRTUAL_EXECUTOR_FACTORY == null) {
+            return null;
+        }
+        try {
+            return VIRTUAL_EXECUTOR_FACTORY.call();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        String prefix = "Scope-" + SCOPE_NUMBER.incrementAndGet() + "-Thread-";
+        AtomicInteger number = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // true, если задачи выполняются на виртуальных потоках
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Запуск задачи в отдельном потоке области
+    public <T> Future<T> fork(Callable<T> task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Область задач закрыта");
+        }
+        ScopedTask<T> future = new ScopedTask<>(task);
+        running.incrementAndGet();
+        futures.add(future);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            // Область закрыли между проверкой и запуском: run() задачи не будет вызван
+            future.cancel(false);
+            taskFinished();
+            throw new IllegalStateException("Область задач закрыта", e);
+        }
+        if (shutdown) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    public Future<?> fork(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не может быть null");
+        }
+        return fork(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // Ожидание завершения всех задач, в том числе запущенных из самих задач. Задача считается
+    // завершённой, когда её код вернул управление: отменённая во время выполнения задача ещё
+    // работает, пока не отреагирует на прерывание, и join ждёт её. При прерывании ожидающего
+    // потока задачи области отменяются
+    public void join() throws InterruptedException {
+        try {
+            synchronized (lock) {
+                while (running.get() > 0) {
+                    lock.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            shutdown();
+            throw e;
+        }
+    }
+
+    // Первая ошибка задачи; RuntimeException выбрасывается как есть, остальные - внутри IllegalStateException
+    public void throwIfFailed() {
+        Throwable cause = failure.get();
+        if (cause == null) {
+            return;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException("Ошибка задачи области", cause);
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    // Отмена всех незавершённых задач с прерыванием их потоков; новые задачи не принимаются
+    public void shutdown() {
+        shutdown = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    // Отменяет оставшиеся задачи и ждёт завершения их потоков
+    public void close() {
+        shutdown();
+        executor.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.DAYS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void taskFinished() {
+        if (running.decrementAndGet() == 0) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private final class ScopedTask<T> extends FutureTask<T> {
+        ScopedTask(Callable<T> task) {
+            super(task);
+        }
+
+        // Счётчик выполняющихся задач уменьшается здесь, а не в done(): при cancel(true) done()
+        // вызывается сразу, а поток задачи может ещё выполнять её код. Исполнитель вызывает run()
+        // для каждой принятой задачи, и для отменённой до запуска он сразу возвращается
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                taskFinished();
+            }
+        }
+
+        protected void done() {
+            if (!isCancelled()) {
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    if (failure.compareAndSet(null, e.getCause())) {
+                        shutdown();
+                    }
+                } catch (InterruptedException | CancellationException e) {
+                    // Задача уже завершена: ожидания нет
+                }
+            }
+            futures.remove(this);
+        }
+    }
+}